@@ -0,0 +1,40 @@
+// Carga de leitura do /products para comparar a versao servlet (8887) com a reativa (8888):
+//   k6 run -e BASE_URL=http://localhost:8887/v1/api loadtest/products.js
+//   k6 run -e BASE_URL=http://localhost:8888/v1/api loadtest/products.js
+// VUS e DURATION mudam a concorrencia e o tempo de cada etapa (padrao 1000 usuarios, 1m).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8887/v1/api';
+const VUS = parseInt(__ENV.VUS || '1000');
+const DURATION = __ENV.DURATION || '1m';
+
+export const options = {
+    scenarios: {
+        burst: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '15s', target: VUS },
+                { duration: DURATION, target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const SEARCHES = [
+    '/products/search?query=terror',
+    '/products/search?min_price=10&max_price=50',
+    '/products/search?query=livro&min_price=10&max_price=50',
+];
+
+export default function () {
+    const page = Math.floor(Math.random() * 20);
+    const list = http.get(`${BASE_URL}/products?page=${page}&linesPerPage=24`, { tags: { name: 'list' } });
+    check(list, { 'list 200': (r) => r.status === 200 });
+
+    const search = http.get(BASE_URL + SEARCHES[Math.floor(Math.random() * SEARCHES.length)], { tags: { name: 'search' } });
+    check(search, { 'search 200': (r) => r.status === 200 });
+}
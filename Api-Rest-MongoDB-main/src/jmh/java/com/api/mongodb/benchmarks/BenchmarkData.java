@@ -0,0 +1,61 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class BenchmarkData {
+
+    public static final String[] GENRES = {"Terror", "Romance", "Fantasia", "Suspense", "Biografia", "Ficção", "Poesia", "Tecnologia"};
+
+    private static final String[] WORDS = {"contos", "fantasmas", "noite", "sombra", "amor", "cidade", "mar", "guerra",
+            "segredo", "jardim", "tempo", "estrela", "caminho", "memorias", "silencio", "viagem"};
+
+    private BenchmarkData() {
+    }
+
+    // Gera um catalogo deterministico (mesma semente) para que as execucoes sejam comparaveis entre si
+    public static List<Livro> catalog(int size) {
+        var random = new Random(42);
+        var livros = new ArrayList<Livro>(size);
+        for (int i = 0; i < size; i++) {
+            livros.add(livro(random, i));
+        }
+        return livros;
+    }
+
+    public static Livro livro(Random random, int index) {
+        return Livro.builder()
+                .name(words(random, 3) + " " + index)
+                .description(words(random, 20))
+                .price(Math.round(random.nextDouble() * 20000) / 100.0)
+                .genre(GENRES[random.nextInt(GENRES.length)])
+                .createdAt(LocalDateTime.now().minusMinutes(index))
+                .build();
+    }
+
+    public static LivroDTO livroDTO(Random random, int index) {
+        var livro = livro(random, index);
+        return LivroDTO.builder()
+                .name(livro.getName())
+                .description(livro.getDescription())
+                .price(livro.getPrice())
+                .genre(livro.getGenre())
+                .build();
+    }
+
+    private static String words(Random random, int count) {
+        var builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.toString();
+    }
+}
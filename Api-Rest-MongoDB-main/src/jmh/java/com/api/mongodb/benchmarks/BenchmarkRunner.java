@@ -0,0 +1,42 @@
+package com.api.mongodb.benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class BenchmarkRunner {
+
+    // Executa os benchmarks filtrados pelo primeiro argumento (regex) e grava o resultado em target/jmh-result.json.
+    // Throughput mede ops/s, SampleTime fornece os percentis (p99) e o GCProfiler a taxa de alocacao (gc.alloc.rate.norm)
+    public static void main(String[] args) throws RunnerException {
+        var include = args.length > 0 ? args[0] : ".*Benchmark.*";
+
+        var jvmArgs = new ArrayList<String>();
+        jvmArgs.add("-Dbenchmark.mongodb.uri=" + System.getProperty("benchmark.mongodb.uri", MongoContextState.DEFAULT_URI));
+        // repassa as propriedades api.* (ex.: -Dapi.cache.query.enabled=false) para os forks, para comparar os modos
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("api.")) {
+                jvmArgs.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+
+        var options = new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend(jvmArgs.toArray(new String[0]))
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+
+        new Runner(options).run();
+    }
+}
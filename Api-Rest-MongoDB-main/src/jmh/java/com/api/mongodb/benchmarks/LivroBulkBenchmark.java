@@ -0,0 +1,58 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.models.dto.LivroBulkOperationDTO;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO.Operation;
+import com.api.mongodb.models.dto.LivroBulkResultDTO;
+import com.api.mongodb.models.dto.LivroDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Compara a carga de um lote de livros pelo POST /products (um save por livro) com o POST /products/bulk
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LivroBulkBenchmark {
+
+    @Param({"500"})
+    public int batch;
+
+    private List<LivroDTO> livros;
+    private List<LivroBulkOperationDTO> operations;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        var random = new Random(11);
+        livros = new ArrayList<>(batch);
+        operations = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            var livro = BenchmarkData.livroDTO(random, i);
+            livros.add(livro);
+            operations.add(new LivroBulkOperationDTO(Operation.INSERT, livro));
+        }
+    }
+
+    @Benchmark
+    public void createOneByOne(MongoContextState state, Blackhole blackhole) {
+        for (LivroDTO livro : livros) {
+            blackhole.consume(state.livroService.create(livro));
+        }
+    }
+
+    @Benchmark
+    public List<LivroBulkResultDTO> createInBulk(MongoContextState state) {
+        return state.livroBulkService.execute(operations);
+    }
+}
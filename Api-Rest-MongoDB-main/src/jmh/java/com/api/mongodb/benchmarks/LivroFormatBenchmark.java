@@ -0,0 +1,100 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Compara JSON com os formatos binarios negociados pelo LivroResource (BinaryFormatsConfig): tempo para codificar a
+// Page<LivroDTO> como o servidor e para decodificar como um consumidor, em paginas de 24 e 1000 livros.
+// O tamanho do payload de cada combinacao sai no log do setup
+@Slf4j
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LivroFormatBenchmark {
+
+    @Param({"json", "cbor", "smile", "msgpack"})
+    public String format;
+
+    @Param({"24", "1000"})
+    public int size;
+
+    private ObjectMapper mapper;
+    private Page<LivroDTO> page;
+    private byte[] encoded;
+
+    // O consumidor so le o conteudo e o total; o resto do envelope da Page e ignorado
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PageBody {
+        private List<LivroDTO> content;
+        private long totalElements;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory(format))
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new BlackbirdModule())
+                .build();
+
+        var livroMapper = new SpecializedLivroMapper();
+        var catalog = BenchmarkData.catalog(size);
+        for (int i = 0; i < catalog.size(); i++) {
+            catalog.get(i).setId(String.format("62eff2aa4e6fc45b97ab%04x", i));
+        }
+        page = new PageImpl<>(catalog.stream().map(livroMapper::toDTO).collect(Collectors.toList()),
+                PageRequest.of(0, size), 10_000);
+        encoded = mapper.writeValueAsBytes(page);
+        log.info("{}, {} livros: {} bytes", format, size, encoded.length);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            case "msgpack":
+                return new MessagePackFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public PageBody decode() throws Exception {
+        return mapper.readValue(encoded, PageBody.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.stream.Collectors;
+
+// Mede a serializacao JSON isolada do Mongo: um LivroDTO e uma Page de 24, com o ObjectMapper padrao do Spring Boot
+// e com o BlackbirdModule (api.json.blackbird)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LivroJsonBenchmark {
+
+    private ObjectMapper reflection;
+    private ObjectMapper blackbird;
+    private LivroDTO livro;
+    private Page<LivroDTO> page;
+
+    @Setup
+    public void setup() {
+        reflection = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        blackbird = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new BlackbirdModule()).build();
+
+        var mapper = new SpecializedLivroMapper();
+        var catalog = BenchmarkData.catalog(24);
+        for (int i = 0; i < catalog.size(); i++) {
+            catalog.get(i).setId(String.format("62eff2aa4e6fc45b97ab%04x", i));
+        }
+        page = new PageImpl<>(catalog.stream().map(mapper::toDTO).collect(Collectors.toList()), PageRequest.of(0, 24), 10_000);
+        livro = page.getContent().get(0);
+    }
+
+    @Benchmark
+    public byte[] reflectionSingle() throws Exception {
+        return reflection.writeValueAsBytes(livro);
+    }
+
+    @Benchmark
+    public byte[] reflectionPage() throws Exception {
+        return reflection.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] blackbirdSingle() throws Exception {
+        return blackbird.writeValueAsBytes(livro);
+    }
+
+    @Benchmark
+    public byte[] blackbirdPage() throws Exception {
+        return blackbird.writeValueAsBytes(page);
+    }
+}
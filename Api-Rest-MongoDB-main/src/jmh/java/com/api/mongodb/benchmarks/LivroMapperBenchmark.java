@@ -0,0 +1,63 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.configuration.ModelMapperConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+// Mede o custo do mapeamento Livro -> LivroDTO isolado do Mongo (um livro e uma pagina de 24)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LivroMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private SpecializedLivroMapper livroMapper;
+    private Livro livro;
+    private List<Livro> page;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapperConfig().modelMapper();
+        livroMapper = new SpecializedLivroMapper();
+        page = BenchmarkData.catalog(24);
+        livro = page.get(0);
+        livro.setId("62eff2aa4e6fc45b97ab3d84");
+    }
+
+    @Benchmark
+    public LivroDTO modelMapperSingle() {
+        return modelMapper.map(livro, LivroDTO.class);
+    }
+
+    @Benchmark
+    public void modelMapperPage(Blackhole blackhole) {
+        for (Livro item : page) {
+            blackhole.consume(modelMapper.map(item, LivroDTO.class));
+        }
+    }
+
+    @Benchmark
+    public LivroDTO specializedSingle() {
+        return livroMapper.toDTO(livro);
+    }
+
+    @Benchmark
+    public void specializedPage(Blackhole blackhole) {
+        for (Livro item : page) {
+            blackhole.consume(livroMapper.toDTO(item));
+        }
+    }
+}
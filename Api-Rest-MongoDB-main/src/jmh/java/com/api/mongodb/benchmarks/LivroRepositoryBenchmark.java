@@ -0,0 +1,83 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.configuration.FacetPropertiesConfig;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroCriteria;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+import java.util.Set;
+
+// Mede as buscas montadas pelo LivroCriteria sem o custo do service (contagem + pagina), a montagem da Criteria,
+// a busca pelo indice de texto e a agregacao das facetas
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LivroRepositoryBenchmark {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 24, Sort.Direction.ASC, "id");
+
+    private static final List<Double> FACET_BOUNDARIES = new FacetPropertiesConfig().getPriceBoundaries();
+
+    private static final LivroFilter PRICE = LivroFilter.builder().min_price(10.0).max_price(50.0).build();
+    private static final LivroFilter QUERY = LivroFilter.builder().query("fantasmas").build();
+    private static final LivroFilter QUERY_AND_PRICE = LivroFilter.builder().query("fantasmas").min_price(10.0).max_price(50.0).build();
+    private static final LivroFilter GENRE_AND_PRICE = LivroFilter.builder().genre("Terror").min_price(10.0).max_price(50.0).build();
+
+    @Benchmark
+    public Page<LivroDTO> findByMinAndMaxPrice(MongoContextState state) {
+        return state.livroRepository.findProjected(LivroCriteria.of(PRICE), FIRST_PAGE, Set.of());
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findByNameOrDescriptionOrGenre(MongoContextState state) {
+        return state.livroRepository.findProjected(LivroCriteria.of(QUERY), FIRST_PAGE, Set.of());
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findByNameOrDescriptionAndMinMaxPrice(MongoContextState state) {
+        return state.livroRepository.findProjected(LivroCriteria.of(QUERY_AND_PRICE), FIRST_PAGE, Set.of());
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findByGenreAndMinMaxPrice(MongoContextState state) {
+        return state.livroRepository.findProjected(LivroCriteria.of(GENRE_AND_PRICE), FIRST_PAGE, Set.of());
+    }
+
+    @Benchmark
+    public LivroFacetsDTO facets(MongoContextState state) {
+        return state.livroRepository.facets(null, FACET_BOUNDARIES);
+    }
+
+    @Benchmark
+    public LivroFacetsDTO facetsByQuery(MongoContextState state) {
+        return state.livroRepository.facets(LivroCriteria.of(QUERY), FACET_BOUNDARIES);
+    }
+
+    @Benchmark
+    public Criteria buildCriteria() {
+        return LivroCriteria.of(QUERY_AND_PRICE);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findByText(MongoContextState state) {
+        return state.livroRepository.findByText(FIRST_PAGE, "fantasmas", null, Set.of());
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findByTextAndMinMaxPrice(MongoContextState state) {
+        return state.livroRepository.findByText(FIRST_PAGE, "fantasmas", LivroCriteria.of(PRICE), Set.of());
+    }
+}
@@ -0,0 +1,164 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import com.api.mongodb.models.pagination.SlicePage;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Random;
+import java.util.Set;
+
+// Mede os caminhos do LivroService contra o Mongo local: listagem, os tres filtros da busca, criacao e edicao
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LivroServiceBenchmark {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 24, Sort.Direction.ASC, "id");
+    private static final PageRequest DEEP_PAGE = PageRequest.of(300, 24, Sort.Direction.ASC, "id");
+
+    private static final Set<String> LISTING_FIELDS = Set.of("id", "name", "price", "genre");
+
+    private final LivroFilter priceFilter = LivroFilter.builder().min_price(10.0).max_price(50.0).build();
+    private final LivroFilter queryFilter = LivroFilter.builder().query("fantasmas").build();
+    private final LivroFilter queryAndPriceFilter = LivroFilter.builder().query("fantasmas").min_price(10.0).max_price(50.0).build();
+    private final LivroFilter minPriceFilter = LivroFilter.builder().min_price(10.0).build();
+    private final LivroFilter genreAndPriceFilter = LivroFilter.builder().genre("Terror").min_price(10.0).max_price(50.0).build();
+    // trecho do numero no nome: poucos livros casam, o caso em que o indice de trigramas (api.search.engine=trigram) mais ajuda
+    private final LivroFilter selectiveFragmentFilter = LivroFilter.builder().query("1234").build();
+    private final LivroFilter wordFragmentFilter = LivroFilter.builder().query("antasm").build();
+
+    private Random random;
+    private int sequence;
+    private String deepCursor;
+
+    // Percorre as paginas por cursor ate a mesma profundidade do DEEP_PAGE para comparar keyset com skip/limit
+    @Setup
+    public void setup(MongoContextState state) {
+        random = new Random(7);
+        for (int page = 0; page < DEEP_PAGE.getPageNumber(); page++) {
+            deepCursor = state.livroService.findAllByCursor(cursor(deepCursor)).getNext();
+        }
+    }
+
+    private static CursorRequest cursor(String next) {
+        return new CursorRequest("id", Sort.Direction.ASC, DEEP_PAGE.getPageSize(), next);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findAllFirstPage(MongoContextState state) {
+        return state.livroService.findAll(FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findAllDeepPage(MongoContextState state) {
+        return state.livroService.findAll(DEEP_PAGE);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> findAllProjectedFirstPage(MongoContextState state) {
+        return state.livroService.findAll(FIRST_PAGE, LISTING_FIELDS);
+    }
+
+    @Benchmark
+    public CursorPage<LivroDTO> findAllByCursorDeepPage(MongoContextState state) {
+        return state.livroService.findAllByCursor(cursor(deepCursor));
+    }
+
+    @Benchmark
+    public SlicePage<LivroDTO> findAllSliceFirstPage(MongoContextState state) {
+        return state.livroService.findAllSlice(FIRST_PAGE, false);
+    }
+
+    @Benchmark
+    public SlicePage<LivroDTO> searchSliceByMinAndMaxPrice(MongoContextState state) {
+        return state.livroService.searchSlice(FIRST_PAGE, priceFilter, false);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByMinAndMaxPrice(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, priceFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByNameOrDescriptionOrGenre(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, queryFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByNameOrDescriptionAndMinMaxPrice(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, queryAndPriceFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByMinPrice(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, minPriceFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByGenreAndMinMaxPrice(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, genreAndPriceFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchBySelectiveFragment(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, selectiveFragmentFilter);
+    }
+
+    @Benchmark
+    public Page<LivroDTO> searchByWordFragment(MongoContextState state) {
+        return state.livroService.searchByFilter(FIRST_PAGE, wordFragmentFilter);
+    }
+
+    // Leituras concentradas em 100 livros, como o trafego real, para medir o cache por id
+    @Benchmark
+    public LivroDTO findByIdHot(MongoContextState state) {
+        return state.livroService.findById(state.catalog.get(random.nextInt(100)).getId());
+    }
+
+    @Benchmark
+    public LivroDTO create(MongoContextState state) {
+        return state.livroService.create(BenchmarkData.livroDTO(random, sequence++));
+    }
+
+    @Benchmark
+    public LivroDTO update(MongoContextState state) {
+        var livro = state.catalog.get(random.nextInt(state.catalog.size()));
+        return state.livroService.update(livro.getId(), BenchmarkData.livroDTO(random, sequence++));
+    }
+
+    @Benchmark
+    public LivroDTO patch(MongoContextState state) {
+        var livro = state.catalog.get(random.nextInt(state.catalog.size()));
+        return state.livroService.patch(livro.getId(), LivroDTO.builder().price(random.nextInt(10_000) / 100.0).build());
+    }
+
+    @Benchmark
+    public boolean existsHot(MongoContextState state) {
+        return state.livroService.exists(state.catalog.get(random.nextInt(state.catalog.size())).getId());
+    }
+
+    @Benchmark
+    public boolean existsMissing(MongoContextState state) {
+        return state.livroService.exists(new ObjectId().toHexString());
+    }
+
+    // Cria e exclui o mesmo livro para manter o catalogo estavel; o custo do delete e a diferenca para o create
+    @Benchmark
+    public void createAndDelete(MongoContextState state) {
+        state.livroService.delete(state.livroService.create(BenchmarkData.livroDTO(random, sequence++)).getId());
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.mongodb.benchmarks;
+
+import com.api.mongodb.ApiMongodbApplication;
+import com.api.mongodb.configuration.IndexConfig;
+import com.api.mongodb.configuration.SearchIndexConfig;
+import com.api.mongodb.configuration.SearchPropertiesConfig;
+import com.api.mongodb.configuration.SearchPropertiesConfig.SearchEngine;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.repositories.LivroRepository;
+import com.api.mongodb.search.LivroTrigramIndex;
+import com.api.mongodb.services.LivroBulkService;
+import com.api.mongodb.services.LivroService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+// Sobe a aplicacao apontando para o Mongo local de benchmark (servico mongodb-bench do docker-compose)
+// e popula a colecao products com um catalogo deterministico
+@State(Scope.Benchmark)
+public class MongoContextState {
+
+    public static final String DEFAULT_URI = "mongodb://localhost:27018/compass_bench?directConnection=true";
+
+    public ConfigurableApplicationContext context;
+    public LivroService livroService;
+    public LivroBulkService livroBulkService;
+    public LivroRepository livroRepository;
+    public MongoTemplate mongoTemplate;
+    public List<Livro> catalog;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(ApiMongodbApplication.class)
+                .run("--spring.data.mongodb.uri=" + System.getProperty("benchmark.mongodb.uri", DEFAULT_URI),
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+
+        livroService = context.getBean(LivroService.class);
+        livroBulkService = context.getBean(LivroBulkService.class);
+        livroRepository = context.getBean(LivroRepository.class);
+        mongoTemplate = context.getBean(MongoTemplate.class);
+
+        mongoTemplate.dropCollection(Livro.class);
+        new SearchIndexConfig(mongoTemplate, context.getBean(SearchPropertiesConfig.class)).ensureTextIndex();
+        // os indices declarados no Livro sao criados em segundo plano na subida; aqui antes de medir
+        new IndexConfig(mongoTemplate).reconcile();
+        catalog = livroRepository.saveAll(BenchmarkData.catalog(Integer.getInteger("benchmark.catalog.size", 10_000)));
+        // o catalogo e gravado pelo repositorio, por fora do LivroService; o indice de trigramas e refeito com ele
+        if (context.getBean(SearchPropertiesConfig.class).getEngine() == SearchEngine.TRIGRAM) {
+            context.getBean(LivroTrigramIndex.class).rebuild();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoTemplate.dropCollection(Livro.class);
+        context.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Cache das facetas por filtro (Caffeine, limitado por tamanho e TTL).
+// As facetas so sao servidas enquanto a geracao de escrita for a mesma de quando foram calculadas
+@Component
+public class FacetResultCache {
+
+    public static final String CACHE_NAME = "livro-facets";
+
+    private final boolean enabled;
+
+    private final WriteGeneration writeGeneration;
+
+    private final Cache<QueryKey, Entry> cache;
+
+    public FacetResultCache(CachePropertiesConfig properties, WriteGeneration writeGeneration, MeterRegistry meterRegistry) {
+        var config = properties.getFacets();
+        this.enabled = config.isEnabled();
+        this.writeGeneration = writeGeneration;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public LivroFacetsDTO get(QueryKey key, Supplier<LivroFacetsDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        var entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation == writeGeneration.current()) {
+            return entry.facets;
+        }
+
+        // a geracao e lida antes da agregacao: uma escrita concorrente deixa o resultado marcado como antigo
+        var generation = writeGeneration.current();
+        var facets = loader.get();
+        cache.put(key, new Entry(facets, generation));
+        return facets;
+    }
+
+    private static final class Entry {
+        private final LivroFacetsDTO facets;
+        private final long generation;
+
+        private Entry(LivroFacetsDTO facets, long generation) {
+            this.facets = facets;
+            this.generation = generation;
+        }
+    }
+}
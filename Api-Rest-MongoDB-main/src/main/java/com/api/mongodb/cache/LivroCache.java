@@ -0,0 +1,70 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.models.Livro;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cache read-through de livros por id (Caffeine, limitado por tamanho e TTL).
+// Metricas: cache.gets/cache.evictions/cache.load.duration (tag cache=livros), livro.cache.hit.ratio e livro.cache.load
+@Component
+public class LivroCache {
+
+    public static final String CACHE_NAME = "livros";
+
+    private final boolean enabled;
+
+    private final Cache<String, Livro> cache;
+
+    private final Timer loadTimer;
+
+    public LivroCache(CachePropertiesConfig properties, MeterRegistry meterRegistry) {
+        var config = properties.getLivro();
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.loadTimer = Timer.builder("livro.cache.load")
+                .description("Tempo de carga de um livro no Mongo quando nao esta no cache")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("livro.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Proporcao de leituras de livro atendidas pelo cache")
+                .register(meterRegistry);
+    }
+
+    // Retorna o livro do cache ou carrega pelo loader; resultado nulo (nao encontrado) nao e guardado
+    public Livro get(String id, Function<String, Livro> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return cache.get(id, key -> loadTimer.record(() -> loader.apply(key)));
+    }
+
+    // Retorna o livro so quando ja esta no cache, sem carregar
+    public Optional<Livro> getIfPresent(String id) {
+        return enabled ? Optional.ofNullable(cache.getIfPresent(id)) : Optional.empty();
+    }
+
+    public void put(Livro livro) {
+        if (enabled && livro.getId() != null) {
+            cache.put(livro.getId(), livro);
+        }
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,78 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.configuration.BinaryFormatsConfig;
+import com.api.mongodb.configuration.ETagPropertiesConfig;
+import com.api.mongodb.models.Livro;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// ETags das leituras de livros, calculadas sem montar nem serializar a resposta.
+// Um livro muda de ETag a cada escrita (version e updatedAt); as listagens e buscas, a cada geracao de escrita
+@Component
+@RequiredArgsConstructor
+public class LivroETags {
+
+    private final WriteGeneration writeGeneration;
+
+    private final ETagPropertiesConfig properties;
+
+    // Identifica esta execucao, pois a geracao de escrita volta a zero a cada subida
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // ETag forte de um livro: id, version e updatedAt (livros gravados sem version ficam com 0)
+    public String of(Livro livro) {
+        return livro.getId() + "-" + (livro.getVersion() == null ? 0 : livro.getVersion()) + "-" + lastModified(livro);
+    }
+
+    // Ultima alteracao do livro em milissegundos (updatedAt ou, se nunca alterado, createdAt); -1 quando nao ha data
+    public long lastModified(Livro livro) {
+        var date = livro.getUpdatedAt() != null ? livro.getUpdatedAt() : livro.getCreatedAt();
+        return date == null ? -1 : millis(date);
+    }
+
+    // ETag das paginas de listagem, busca e facetas: vale para a URL inteira enquanto nada for escrito nesta instancia
+    // e a janela de api.etag.collection-window nao virar
+    public String collection() {
+        var window = Math.max(1, properties.getCollectionWindow().toMillis());
+        return boot + "-" + writeGeneration.current() + "-" + System.currentTimeMillis() / window;
+    }
+
+    // Sufixo da ETag pelo formato que o Accept vai negociar: vazio para JSON, "-cbor", "-x-jackson-smile" ou "-x-msgpack".
+    // Os formatos sao representacoes diferentes do mesmo recurso e nao podem dividir a mesma ETag forte
+    public String variant(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "";
+        }
+        try {
+            var types = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(types);
+            for (var type : types) {
+                if (type.includes(MediaType.APPLICATION_JSON)) {
+                    return "";
+                }
+                for (var binary : BinaryFormatsConfig.MEDIA_TYPES) {
+                    if (type.includes(binary)) {
+                        return "-" + binary.getSubtype();
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+        return "";
+    }
+
+    // O Mongo grava o LocalDateTime no fuso da aplicacao
+    private static long millis(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
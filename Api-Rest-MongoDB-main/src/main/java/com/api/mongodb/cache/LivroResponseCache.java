@@ -0,0 +1,108 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+// Cache das respostas de GET /products/{id} ja serializadas em JSON UTF-8 (e em gzip, com api.cache.response.gzip),
+// escritas direto na resposta sem passar de novo pelo mapper e pelo Jackson. Invalidado a cada escrita do livro.
+// Metricas: cache.gets/cache.evictions (tag cache=livro-responses)
+@Component
+public class LivroResponseCache {
+
+    public static final String CACHE_NAME = "livro-responses";
+
+    private final CachePropertiesConfig.Response config;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Encoded> cache;
+
+    public LivroResponseCache(CachePropertiesConfig properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.config = properties.getResponse();
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    // Resposta codificada do livro. Com a ETag atual (nula quando desligada) uma entrada de outra versao do livro,
+    // escrita por outra instancia ou gravada durante uma escrita concorrente, e descartada e codificada de novo
+    public Encoded get(String id, String etag, Function<String, LivroDTO> loader) {
+        var entry = cache.getIfPresent(id);
+        if (entry != null && (etag == null || etag.equals(entry.etag))) {
+            return entry;
+        }
+        entry = encode(loader.apply(id), etag);
+        cache.put(id, entry);
+        return entry;
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    private Encoded encode(LivroDTO livroDTO, String etag) {
+        try {
+            var json = objectMapper.writeValueAsBytes(livroDTO);
+            var gzip = config.isGzip() && json.length >= config.getGzipMinSize().toBytes() ? gzip(json) : null;
+            return new Encoded(json, gzip, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        var bytes = new ByteArrayOutputStream(json.length / 2);
+        try (var out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static final class Encoded {
+
+        private final byte[] json;
+
+        // Nulo quando o gzip esta desligado ou a resposta e pequena demais
+        private final byte[] gzip;
+
+        private final String etag;
+
+        private Encoded(byte[] json, byte[] gzip, String etag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.models.filters.LivroFilter;
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Chave normalizada de uma consulta paginada: tipo, todos os filtros, campos, pagina, tamanho e ordenacao
+@Value
+public class QueryKey {
+
+    String kind;
+    String query;
+    Double minPrice;
+    Double maxPrice;
+    String genre;
+    boolean priceInclusive;
+    LocalDateTime createdFrom;
+    LocalDateTime createdTo;
+    String fields;
+    int page;
+    int size;
+    String sort;
+
+    public static QueryKey of(String kind, LivroFilter filter, Pageable pageable, Set<String> fields) {
+        var query = filter == null || filter.getQuery() == null ? null : filter.getQuery().trim();
+        return new QueryKey(kind,
+                query,
+                filter == null ? null : filter.getMin_price(),
+                filter == null ? null : filter.getMax_price(),
+                filter == null || !filter.hasGenre() ? null : filter.getGenre(),
+                filter != null && filter.priceInclusive(),
+                filter == null ? null : filter.getCreated_from(),
+                filter == null ? null : filter.getCreated_to(),
+                fields == null || fields.isEmpty() ? "" : String.join(",", new TreeSet<>(fields)),
+                pageable.isPaged() ? pageable.getPageNumber() : -1,
+                pageable.isPaged() ? pageable.getPageSize() : -1,
+                pageable.getSort().toString());
+    }
+}
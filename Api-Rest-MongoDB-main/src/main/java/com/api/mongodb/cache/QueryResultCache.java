@@ -0,0 +1,92 @@
+package com.api.mongodb.cache;
+
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Cache de paginas de findAll/searchByFilter, limitado pelo tamanho estimado em bytes e por TTL.
+// Um resultado carregado antes da ultima escrita (geracao diferente) so e servido enquanto tiver menos que staleWindow de idade
+@Component
+public class QueryResultCache {
+
+    public static final String CACHE_NAME = "livro-queries";
+
+    private final boolean enabled;
+
+    private final long staleWindowMillis;
+
+    private final WriteGeneration writeGeneration;
+
+    private final Cache<QueryKey, Entry> cache;
+
+    public QueryResultCache(CachePropertiesConfig properties, WriteGeneration writeGeneration, MeterRegistry meterRegistry) {
+        var config = properties.getQuery();
+        this.enabled = config.isEnabled();
+        this.staleWindowMillis = config.getStaleWindow().toMillis();
+        this.writeGeneration = writeGeneration;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((QueryKey key, Entry entry) -> entry.weight)
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Page<LivroDTO> get(QueryKey key, Supplier<Page<LivroDTO>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        var entry = cache.getIfPresent(key);
+        if (entry != null && isFresh(entry)) {
+            return entry.page;
+        }
+
+        // a geracao e lida antes da consulta: uma escrita concorrente deixa o resultado marcado como antigo
+        var generation = writeGeneration.current();
+        var page = loader.get();
+        cache.put(key, new Entry(page, generation, System.currentTimeMillis()));
+        return page;
+    }
+
+    private boolean isFresh(Entry entry) {
+        return entry.generation == writeGeneration.current()
+                || System.currentTimeMillis() - entry.loadedAt < staleWindowMillis;
+    }
+
+    private static final class Entry {
+        private final Page<LivroDTO> page;
+        private final long generation;
+        private final long loadedAt;
+        private final int weight;
+
+        private Entry(Page<LivroDTO> page, long generation, long loadedAt) {
+            this.page = page;
+            this.generation = generation;
+            this.loadedAt = loadedAt;
+            this.weight = weigh(page);
+        }
+
+        // Estimativa grosseira do heap ocupado pela pagina (strings UTF-16 + cabecalhos dos objetos)
+        private static int weigh(Page<LivroDTO> page) {
+            long bytes = 128;
+            for (LivroDTO dto : page.getContent()) {
+                bytes += 96 + chars(dto.getId()) + chars(dto.getName()) + chars(dto.getDescription()) + chars(dto.getGenre());
+            }
+            return (int) Math.min(bytes, Integer.MAX_VALUE);
+        }
+
+        private static long chars(String value) {
+            return value == null ? 0 : 40 + 2L * value.length();
+        }
+    }
+}
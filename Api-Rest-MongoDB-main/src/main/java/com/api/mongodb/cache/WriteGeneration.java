@@ -0,0 +1,21 @@
+package com.api.mongodb.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Geracao de escrita da colecao products: incrementada a cada escrita feita por esta instancia.
+// Os caches de consultas comparam a geracao do resultado com a atual para saber se ele pode estar desatualizado
+@Component
+public class WriteGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public long bump() {
+        return generation.incrementAndGet();
+    }
+}
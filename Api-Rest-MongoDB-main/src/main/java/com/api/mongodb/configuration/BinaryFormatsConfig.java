@@ -0,0 +1,64 @@
+package com.api.mongodb.configuration;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// CBOR, Smile e MessagePack negociados pelo Accept (leituras) e pelo Content-Type (criacao, edicao e bulk) em todo o
+// LivroResource. Os tres usam o mesmo ObjectMapper configurado do JSON (datas ISO, Blackbird), so trocando o formato
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "api.binary-formats.enabled", havingValue = "true", matchIfMissing = true)
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    public static final MediaType APPLICATION_MSGPACK = new MediaType("application", "x-msgpack");
+
+    // Formatos binarios, na ordem de preferencia quando o Accept empata
+    public static final List<MediaType> MEDIA_TYPES = List.of(MediaType.APPLICATION_CBOR, APPLICATION_SMILE, APPLICATION_MSGPACK);
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> builders;
+
+    public BinaryFormatsConfig(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        this.builders = builders;
+    }
+
+    // Os conversores binarios vao para o fim da lista: sem Accept, ou com */*, a resposta continua em JSON.
+    // Os de CBOR e Smile que o Spring registra sozinho (com um ObjectMapper padrao, datas como timestamp) saem
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(mapper(new CBORFactory())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(mapper(new SmileFactory())));
+        converters.add(new MessagePackHttpMessageConverter(mapper(new MessagePackFactory())));
+    }
+
+    private ObjectMapper mapper(JsonFactory factory) {
+        return builders.getObject().factory(factory).build();
+    }
+
+    // O Spring nao traz conversor para MessagePack; o jackson-dataformat-msgpack faz o papel do CBORFactory
+    static class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+        MessagePackHttpMessageConverter(ObjectMapper objectMapper) {
+            super(objectMapper, APPLICATION_MSGPACK);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.bulk")
+public class BulkPropertiesConfig {
+
+    // Quantidade de operacoes enviadas ao Mongo em cada bulkWrite
+    private int batchSize = 1000;
+
+    // Quantidade maxima de operacoes aceitas em uma requisicao de /products/bulk
+    private int maxOperations = 10_000;
+}
@@ -0,0 +1,83 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.cache")
+public class CachePropertiesConfig {
+
+    // Cache de livros por id usado pelo findLivro
+    private Livro livro = new Livro();
+
+    // Cache de paginas de findAll e searchByFilter
+    private Query query = new Query();
+
+    // Cache das facetas de GET /products/facets
+    private Facets facets = new Facets();
+
+    // Cache das respostas JSON ja codificadas de GET /products/{id}
+    private Response response = new Response();
+
+    @Data
+    public static class Livro {
+
+        private boolean enabled = true;
+
+        // Quantidade maxima de livros em memoria (W-TinyLFU decide quem sai)
+        private long maximumSize = 10_000;
+
+        // Tempo maximo de um livro no cache depois de carregado
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Query {
+
+        private boolean enabled = true;
+
+        // Orcamento de memoria do cache (tamanho estimado das paginas guardadas)
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        // Tempo maximo de uma pagina no cache
+        private Duration ttl = Duration.ofSeconds(60);
+
+        // Por quanto tempo uma pagina carregada antes de uma escrita ainda pode ser servida (zero = nunca)
+        private Duration staleWindow = Duration.ZERO;
+    }
+
+    @Data
+    public static class Facets {
+
+        private boolean enabled = true;
+
+        // Quantidade maxima de combinacoes de filtro em memoria
+        private long maximumSize = 1_000;
+
+        // Tempo maximo das facetas no cache; uma escrita desta instancia as invalida antes disso
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Response {
+
+        private boolean enabled = true;
+
+        // Quantidade maxima de respostas em memoria
+        private long maximumSize = 10_000;
+
+        // Tempo maximo de uma resposta no cache; uma escrita no livro a invalida antes disso
+        private Duration ttl = Duration.ofMinutes(10);
+
+        // Guarda tambem a resposta em gzip, servida a quem manda Accept-Encoding: gzip
+        private boolean gzip = false;
+
+        // Respostas menores que isso nao sao comprimidas
+        private DataSize gzipMinSize = DataSize.ofBytes(1024);
+    }
+}
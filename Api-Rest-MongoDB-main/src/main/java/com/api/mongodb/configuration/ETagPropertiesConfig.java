@@ -0,0 +1,20 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.etag")
+public class ETagPropertiesConfig {
+
+    // Liga o GET condicional (If-None-Match / If-Modified-Since -> 304) nas leituras de livros
+    private boolean enabled = true;
+
+    // A ETag das listagens e buscas muda a cada escrita desta instancia e tambem a cada janela: e o tempo maximo em que
+    // uma pagina alterada por outra instancia ainda pode ser respondida com 304 (o mesmo risco do api.cache.query.ttl)
+    private Duration collectionWindow = Duration.ofSeconds(60);
+}
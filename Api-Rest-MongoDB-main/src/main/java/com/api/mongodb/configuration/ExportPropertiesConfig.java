@@ -0,0 +1,17 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.export")
+public class ExportPropertiesConfig {
+
+    // Quantidade de documentos trazidos por getMore do cursor do Mongo
+    private int cursorBatchSize = 500;
+
+    // A resposta e descarregada para o cliente a cada flushEvery livros
+    private int flushEvery = 500;
+}
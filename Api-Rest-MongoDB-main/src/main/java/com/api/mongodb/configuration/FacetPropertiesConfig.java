@@ -0,0 +1,17 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.facets")
+public class FacetPropertiesConfig {
+
+    // Limites das faixas de preco do $bucket, em ordem crescente; cada faixa vai de um limite (inclusivo) ao proximo (exclusivo).
+    // Precos fora dos limites caem na faixa "outros"
+    private List<Double> priceBoundaries = List.of(0.0, 10.0, 25.0, 50.0, 100.0, 250.0);
+}
@@ -0,0 +1,23 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.import")
+public class ImportPropertiesConfig {
+
+    // Quantidade de linhas inseridas em cada bulkWrite
+    private int batchSize = 1000;
+
+    // Lotes sendo gravados ao mesmo tempo; com todos ocupados a leitura do corpo da requisicao para
+    private int maxInFlight = 4;
+
+    // Importacoes ao mesmo tempo; acima disso a requisicao recebe 429. O pool de gravacao tem maxConcurrent * maxInFlight threads
+    private int maxConcurrent = 2;
+
+    // Quantidade maxima de erros por linha devolvidos no resumo (os contadores continuam completos)
+    private int maxErrors = 100;
+}
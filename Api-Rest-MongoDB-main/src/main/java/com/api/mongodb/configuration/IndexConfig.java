@@ -0,0 +1,67 @@
+package com.api.mongodb.configuration;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.repositories.LivroIndexes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "api.index.reconcile", havingValue = "true", matchIfMissing = true)
+public class IndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Concilia os indices do Livro numa thread propria, sem segurar a subida da aplicacao
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileInBackground() {
+        var thread = new Thread(this::reconcile, "livro-index-reconciler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Cria os indices declarados que faltam e recria os que tem o mesmo nome com outras chaves.
+    // Indices que nao estao no Livro (como o de texto do SearchIndexConfig) so aparecem no log
+    public void reconcile() {
+        var collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Livro.class));
+        var indexOps = mongoTemplate.indexOps(Livro.class);
+
+        Map<String, Document> existing = new HashMap<>();
+        try {
+            for (Document index : collection.listIndexes()) {
+                existing.put(index.getString("name"), index.get("key", Document.class));
+            }
+
+            for (IndexDefinition index : LivroIndexes.declared((MongoMappingContext) mongoTemplate.getConverter().getMappingContext())) {
+                var name = index.getIndexOptions().getString("name");
+                var keys = existing.remove(name);
+                if (keys == null) {
+                    log.info("Criando indice {} {}", name, index.getIndexKeys().toJson());
+                    indexOps.ensureIndex(index);
+                } else if (!LivroIndexes.sameKeys(index.getIndexKeys(), keys)) {
+                    log.warn("Indice {} existe com chaves {}; recriando com {}", name, keys.toJson(), index.getIndexKeys().toJson());
+                    indexOps.dropIndex(name);
+                    indexOps.ensureIndex(index);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao conciliar os indices de livros", e);
+            return;
+        }
+
+        existing.remove("_id_");
+        existing.forEach((name, keys) -> log.info("Indice {} {} nao esta declarado no Livro", name, keys.toJson()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.mongodb.configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // O Spring Boot registra todo Module no ObjectMapper da aplicacao: com o Blackbird os getters e setters do LivroDTO
+    // e do envelope da Page passam a ser chamados por lambdas geradas (LambdaMetafactory) em vez de reflexao
+    @Bean
+    @ConditionalOnProperty(name = "api.json.blackbird", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,26 @@
+package com.api.mongodb.configuration;
+
+import com.api.mongodb.metrics.MongoPoolWaitListener;
+import com.api.mongodb.metrics.SlowQueryRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoMetricsConfig {
+
+    // Registra o listener de espera do pool junto aos listeners de comandos e de pool que o Boot ja adiciona
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoPoolWaitCustomizer(MeterRegistry meterRegistry) {
+        var listener = new MongoPoolWaitListener(meterRegistry);
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener));
+    }
+
+    // Registra o listener de consultas lentas quando api.slow-query.enabled esta ligado
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowQueryCustomizer(ObjectProvider<SlowQueryRecorder> slowQueryRecorder) {
+        return settings -> slowQueryRecorder.ifAvailable(settings::addCommandListener);
+    }
+}
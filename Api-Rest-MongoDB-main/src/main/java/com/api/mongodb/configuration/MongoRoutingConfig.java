@@ -0,0 +1,31 @@
+package com.api.mongodb.configuration;
+
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.routing.RoutingMongoTemplate;
+import com.mongodb.ConnectionString;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+@Slf4j
+@Configuration
+public class MongoRoutingConfig {
+
+    // Substitui o MongoTemplate do Boot, com a mesma fabrica e o mesmo conversor, pelo que aplica o MongoRouting.
+    // Com api.routing.enabled desligado ele se comporta igual ao do Boot
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter, MongoRouting routing,
+                                       MongoProperties mongoProperties) {
+        if (routing.isEnabled() && mongoProperties.getUri() != null
+                && Boolean.TRUE.equals(new ConnectionString(mongoProperties.getUri()).isDirectConnection())) {
+            // Com directConnection o driver so fala com o host da URI: as leituras roteadas nunca chegam a um secundario
+            log.warn("api.routing.enabled com directConnection=true na spring.data.mongodb.uri: as leituras continuam no host "
+                    + "da URI. Use a URI do replica set (replicaSet=..., sem directConnection)");
+        }
+        return new RoutingMongoTemplate(mongoDatabaseFactory, mongoConverter, routing);
+    }
+}
@@ -0,0 +1,19 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.paging")
+public class PagingPropertiesConfig {
+
+    // Tempo que a contagem de uma busca filtrada fica em cache para o total estimado
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    // Quantidade maxima de filtros com contagem em cache
+    private int countCacheSize = 1000;
+}
@@ -0,0 +1,35 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.replica")
+public class ReplicaPropertiesConfig {
+
+    // Carrega a colecao products em memoria na subida e responde findAll, searchByFilter e findById por ela
+    private boolean enabled = false;
+
+    // Como a copia acompanha as escritas: AUTO tenta o change stream e cai para o polling sem replica set
+    private ReplicaMode mode = ReplicaMode.AUTO;
+
+    // Espera maxima de cada getMore do change stream
+    private Duration maxAwait = Duration.ofMillis(500);
+
+    // Intervalo entre as consultas do polling
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // O polling rele as escritas desta janela antes da marca d'agua, para cobrir relogios diferentes entre instancias
+    private Duration pollOverlap = Duration.ofSeconds(5);
+
+    // Espera antes de reabrir o change stream ou repetir o polling depois de uma falha
+    private Duration retryDelay = Duration.ofSeconds(5);
+
+    public enum ReplicaMode {
+        AUTO, CHANGE_STREAM, POLLING
+    }
+}
@@ -0,0 +1,31 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.routing")
+public class RoutingPropertiesConfig {
+
+    // Manda findAll, searchByFilter, facetas e exportacao para os secundarios e grava o import com importWriteConcern
+    private boolean enabled = false;
+
+    // Modo das leituras roteadas: secondaryPreferred, secondary ou nearest (secondaryPreferred cai no primario sem secundarios)
+    private String readPreference = "secondaryPreferred";
+
+    // Atraso maximo de um secundario para receber leituras; o Mongo exige pelo menos 90s e zero tira o limite
+    private Duration maxStaleness = Duration.ofSeconds(90);
+
+    // Depois de uma escrita o cliente le do primario por esta janela; deve cobrir o maxStaleness mais o heartbeat do driver
+    private Duration readYourWrites = Duration.ofSeconds(100);
+
+    // Cookie com o instante ate o qual as leituras do cliente vao ao primario
+    private String cookieName = "api-primary-until";
+
+    // WriteConcern dos lotes do POST /products/import (w1, journaled, majority...); unacknowledged nao devolve as falhas por linha
+    private String importWriteConcern = "w1";
+}
@@ -0,0 +1,34 @@
+package com.api.mongodb.configuration;
+
+import com.api.mongodb.models.Livro;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "api.search.engine", havingValue = "text")
+public class SearchIndexConfig {
+
+    public static final String TEXT_INDEX_NAME = "livro_text";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final SearchPropertiesConfig properties;
+
+    // Cria o indice de texto ponderado em name, genre e description quando a busca usa o motor TEXT
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureTextIndex() {
+        mongoTemplate.indexOps(Livro.class).ensureIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+                .named(TEXT_INDEX_NAME)
+                .withDefaultLanguage(properties.getLanguage())
+                .onField("name", properties.getNameWeight())
+                .onField("genre", properties.getGenreWeight())
+                .onField("description", properties.getDescriptionWeight())
+                .build());
+    }
+}
@@ -0,0 +1,39 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.search")
+public class SearchPropertiesConfig {
+
+    // Motor da busca por texto em /products/search
+    private SearchEngine engine = SearchEngine.REGEX;
+
+    // Idioma padrao do indice de texto (stemming e stop words)
+    private String language = "portuguese";
+
+    // Pesos do indice de texto por campo
+    private float nameWeight = 3F;
+    private float genreWeight = 2F;
+    private float descriptionWeight = 1F;
+
+    // Motor TRIGRAM: acima de tantos ids candidatos a busca segue so pela regex, sem o $in
+    private int trigramMaxCandidates = 5000;
+
+    // Motor TRIGRAM: intervalo da reconstrucao do indice, que traz as escritas de outras instancias (0 desliga)
+    private Duration trigramRebuildInterval = Duration.ofMinutes(30);
+
+    public enum SearchEngine {
+        // $regex case-insensitive em name, description e genre (comportamento original)
+        REGEX,
+        // $text sobre o indice de texto ponderado, ordenado por textScore
+        TEXT,
+        // regex como no REGEX, restrita aos ids candidatos do indice de trigramas em memoria (LivroTrigramIndex)
+        TRIGRAM
+    }
+}
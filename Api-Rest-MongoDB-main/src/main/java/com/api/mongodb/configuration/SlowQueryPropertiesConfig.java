@@ -0,0 +1,25 @@
+package com.api.mongodb.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "api.slow-query")
+public class SlowQueryPropertiesConfig {
+
+    // Liga o registro de consultas lentas (listener de comandos do driver)
+    private boolean enabled = true;
+
+    // Comandos find, count, aggregate e distinct acima deste tempo sao registrados
+    private Duration threshold = Duration.ofMillis(100);
+
+    // Quantidade de consultas lentas guardadas no buffer circular do endpoint /actuator/slowqueries
+    private int capacity = 100;
+
+    // Roda o explain("executionStats") de cada consulta lenta em segundo plano
+    private boolean explain = true;
+}
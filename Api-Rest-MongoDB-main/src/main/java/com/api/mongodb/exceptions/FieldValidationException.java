@@ -0,0 +1,18 @@
+package com.api.mongodb.exceptions;
+
+public class FieldValidationException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String fieldName;
+
+	public FieldValidationException(String fieldName, String msg) {
+		super(msg);
+		this.fieldName = fieldName;
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+}
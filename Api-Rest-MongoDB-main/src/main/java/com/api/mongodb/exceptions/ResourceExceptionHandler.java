@@ -1,6 +1,8 @@
 package com.api.mongodb.exceptions;
 
 import com.api.mongodb.util.Constants;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import javax.servlet.http.HttpServletRequest;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ResourceExceptionHandler {
 
 	//Exception quando um Obejeto nao e´encontrado e com mensagens programadas
@@ -35,6 +38,25 @@ public class ResourceExceptionHandler {
 		}		
 		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
 	}
+	//Exception quando um parametro aponta para um campo invalido, no mesmo formato dos erros de validacao
+	@ExceptionHandler(FieldValidationException.class)
+	public ResponseEntity<StandardError> fieldValidation(FieldValidationException e, HttpServletRequest request) {
+		ValidationError error = new ValidationError(System.currentTimeMillis(), HttpStatus.BAD_REQUEST.value(), Constants.ERROR_VALIDATION, Constants.MESSAGE_FIELD_REQUIRE, request.getRequestURI());
+		error.addError(e.getFieldName(), e.getMessage());
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+	}
+	//Exception quando a version enviada no PUT ou PATCH ja nao e a do banco (escrita concorrente)
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<StandardError> conflict(OptimisticLockingFailureException e, HttpServletRequest request) {
+		StandardError error = new StandardError(System.currentTimeMillis(), HttpStatus.CONFLICT.value(), Constants.ERROR_CONFLICT, e.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+	}
+	//Exception quando o servico ja esta no limite de requisicoes simultaneas (importacao)
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<StandardError> tooManyRequests(TooManyRequestsException e, HttpServletRequest request) {
+		StandardError error = new StandardError(System.currentTimeMillis(), HttpStatus.TOO_MANY_REQUESTS.value(), Constants.ERROR_TOO_MANY_REQUESTS, e.getMessage(), request.getRequestURI());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+	}
 	//Exception quando Run time exception com mensagens programadas
 	@ExceptionHandler(value = RuntimeException.class)
 	public ResponseEntity<StandardError> errorHandlerOverJson(HttpServletRequest request, RuntimeException exception) {
@@ -0,0 +1,11 @@
+package com.api.mongodb.exceptions;
+
+public class TooManyRequestsException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TooManyRequestsException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.api.mongodb.mappers;
+
+// Contrato de conversao entre um documento e o seu DTO. Cada modelo novo ganha a sua implementacao especializada
+public interface EntityMapper<E, D> {
+
+    D toDTO(E entity);
+
+    E toEntity(D dto);
+}
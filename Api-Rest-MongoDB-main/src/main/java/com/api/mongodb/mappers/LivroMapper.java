@@ -0,0 +1,8 @@
+package com.api.mongodb.mappers;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+
+// Mapper de Livro usado pelo service. A implementacao e escolhida pela propriedade api.mapper.mode
+public interface LivroMapper extends EntityMapper<Livro, LivroDTO> {
+}
@@ -0,0 +1,27 @@
+package com.api.mongodb.mappers;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import lombok.RequiredArgsConstructor;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Mapper reflexivo original (ModelMapper STRICT), mantido para comparacao com api.mapper.mode=modelmapper
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "api.mapper.mode", havingValue = "modelmapper")
+public class ModelMapperLivroMapper implements LivroMapper {
+
+    private final ModelMapper mapper;
+
+    @Override
+    public LivroDTO toDTO(Livro livro) {
+        return mapper.map(livro, LivroDTO.class);
+    }
+
+    @Override
+    public Livro toEntity(LivroDTO livroDTO) {
+        return mapper.map(livroDTO, Livro.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.api.mongodb.mappers;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Mapper escrito a mao: copia campo a campo, sem reflexao e sem objetos intermediarios
+@Component
+@ConditionalOnProperty(name = "api.mapper.mode", havingValue = "specialized", matchIfMissing = true)
+public class SpecializedLivroMapper implements LivroMapper {
+
+    @Override
+    public LivroDTO toDTO(Livro livro) {
+        if (livro == null) {
+            return null;
+        }
+        return new LivroDTO(
+                livro.getId(),
+                livro.getName(),
+                livro.getDescription(),
+                livro.getPrice(),
+                livro.getCreatedAt(),
+                livro.getUpdatedAt(),
+                livro.getGenre(),
+                livro.getVersion());
+    }
+
+    @Override
+    public Livro toEntity(LivroDTO livroDTO) {
+        if (livroDTO == null) {
+            return null;
+        }
+        return new Livro(
+                livroDTO.getId(),
+                livroDTO.getName(),
+                livroDTO.getDescription(),
+                livroDTO.getPrice(),
+                livroDTO.getCreatedAt(),
+                livroDTO.getUpdatedAt(),
+                livroDTO.getGenre(),
+                livroDTO.getVersion());
+    }
+}
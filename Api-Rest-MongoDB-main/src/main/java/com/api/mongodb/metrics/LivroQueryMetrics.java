@@ -0,0 +1,33 @@
+package com.api.mongodb.metrics;
+
+import com.api.mongodb.models.filters.LivroFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Timer livro.query das consultas do LivroRepository, com histograma de percentis.
+// Tags: method (metodo do repositorio) e shape (parametros do LivroFilter preenchidos, que definem o ramo da busca)
+@Component
+public class LivroQueryMetrics {
+
+    public static final String METRIC_NAME = "livro.query";
+
+    private final MeterRegistry meterRegistry;
+
+    public LivroQueryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Mede a consulta; filtro nulo e a listagem sem filtros (shape none)
+    public <T> T record(String method, LivroFilter filter, Supplier<T> query) {
+        return Timer.builder(METRIC_NAME)
+                .description("Tempo das consultas de livros no Mongo por metodo e forma do filtro")
+                .tag("method", method)
+                .tag("shape", filter == null ? LivroFilter.SHAPE_NONE : filter.shape())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(query);
+    }
+}
@@ -0,0 +1,57 @@
+package com.api.mongodb.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+// Completa as metricas de pool do Boot (mongodb.driver.pool.size/checkedout/waitqueuesize) com o tempo de espera
+// por uma conexao e as falhas de checkout (na pratica timeouts de maxWaitTime; o driver 4.2 nao expoe o motivo).
+// No driver sincrono o checkout comeca e termina na mesma thread, por isso o inicio fica num ThreadLocal
+public class MongoPoolWaitListener implements ConnectionPoolListener {
+
+    private final ThreadLocal<Long> checkOutStart = new ThreadLocal<>();
+
+    private final Timer waitTimer;
+
+    private final Counter checkOutFailures;
+
+    public MongoPoolWaitListener(MeterRegistry meterRegistry) {
+        this.waitTimer = Timer.builder("mongodb.driver.pool.wait")
+                .description("Tempo esperando uma conexao livre no pool do Mongo")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.checkOutFailures = Counter.builder("mongodb.driver.pool.checkout.failures")
+                .description("Checkouts de conexao do pool do Mongo que falharam")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkOutStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        recordWait();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        recordWait();
+        checkOutFailures.increment();
+    }
+
+    private void recordWait() {
+        var start = checkOutStart.get();
+        if (start != null) {
+            checkOutStart.remove();
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.api.mongodb.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Uma consulta lenta capturada pelo SlowQueryRecorder; o plano chega depois, quando o explain assincrono termina
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlowQuery {
+
+    private Instant timestamp;
+
+    private String database;
+
+    private String collection;
+
+    private String command;
+
+    private String filter;
+
+    private String sort;
+
+    private Long skip;
+
+    private Long limit;
+
+    private long durationMillis;
+
+    private volatile Plan plan;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Plan {
+
+        //Estagios do plano vencedor, do mais externo para o mais interno (ex.: "LIMIT > FETCH > IXSCAN")
+        private String stage;
+
+        private Long docsExamined;
+
+        private Long keysExamined;
+
+        private Long returned;
+
+        private Long executionTimeMillis;
+
+        //Preenchido quando o explain falhou
+        private String error;
+    }
+}
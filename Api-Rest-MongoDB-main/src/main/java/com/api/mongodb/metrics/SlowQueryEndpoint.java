@@ -0,0 +1,30 @@
+package com.api.mongodb.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/slowqueries lista as consultas lentas mais recentes com o plano; DELETE limpa o buffer
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "api.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryRecorder recorder;
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return recorder.recent();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
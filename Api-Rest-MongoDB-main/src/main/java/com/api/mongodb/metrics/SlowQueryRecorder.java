@@ -0,0 +1,210 @@
+package com.api.mongodb.metrics;
+
+import com.api.mongodb.configuration.SlowQueryPropertiesConfig;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Listener de comandos do driver: todo find/count/aggregate/distinct do LivroRepository ou do MongoTemplate acima do
+// threshold vai para o log e para um buffer circular, e o explain("executionStats") dele roda numa thread separada
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "api.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryRecorder implements CommandListener, DisposableBean {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "count", "aggregate", "distinct");
+
+    // Campos do envelope do comando que o explain nao aceita dentro do comando explicado
+    private static final Set<String> ENVELOPE_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "readConcern");
+
+    private final SlowQueryPropertiesConfig properties;
+
+    private final ObjectProvider<MongoClient> mongoClient;
+
+    private final Map<Integer, BsonDocument> started = new ConcurrentHashMap<>();
+
+    private final ArrayDeque<SlowQuery> recent;
+
+    // Uma thread e fila do tamanho do buffer: com o Mongo ja lento, explains excedentes sao descartados
+    private final ThreadPoolExecutor explainer;
+
+    public SlowQueryRecorder(SlowQueryPropertiesConfig properties, ObjectProvider<MongoClient> mongoClient) {
+        this.properties = properties;
+        this.mongoClient = mongoClient;
+        this.recent = new ArrayDeque<>(properties.getCapacity());
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getCapacity())), runnable -> {
+                    var thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (QUERY_COMMANDS.contains(event.getCommandName())) {
+            // o documento do evento e liberado pelo driver depois do callback, por isso a copia; o nome do banco
+            // so vem no evento de inicio e segue junto no $db
+            var command = event.getCommand().clone();
+            command.put("$db", new BsonString(event.getDatabaseName()));
+            started.put(event.getRequestId(), command);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        var command = started.remove(event.getRequestId());
+        if (command != null) {
+            record(event.getCommandName(), command, event.getElapsedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        var command = started.remove(event.getRequestId());
+        if (command != null) {
+            record(event.getCommandName(), command, event.getElapsedTime(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Consultas lentas mais recentes primeiro
+    public List<SlowQuery> recent() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    public void clear() {
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    private void record(String commandName, BsonDocument command, long durationMillis) {
+        if (durationMillis < properties.getThreshold().toMillis()) {
+            return;
+        }
+        var database = command.getString("$db").getValue();
+
+        var slowQuery = SlowQuery.builder()
+                .timestamp(Instant.now())
+                .database(database)
+                .collection(command.get(commandName).isString() ? command.getString(commandName).getValue() : null)
+                .command(commandName)
+                .filter(json(command.get("aggregate".equals(commandName) ? "pipeline" : "find".equals(commandName) ? "filter" : "query")))
+                .sort(json(command.get("sort")))
+                .skip(number(command.get("skip")))
+                .limit(number(command.get("limit")))
+                .durationMillis(durationMillis)
+                .build();
+
+        log.warn("Consulta lenta ({} ms) {} {}.{} filter={} sort={} skip={} limit={}", durationMillis, commandName,
+                database, slowQuery.getCollection(), slowQuery.getFilter(), slowQuery.getSort(), slowQuery.getSkip(), slowQuery.getLimit());
+
+        synchronized (recent) {
+            if (recent.size() >= properties.getCapacity()) {
+                recent.removeLast();
+            }
+            recent.addFirst(slowQuery);
+        }
+
+        if (properties.isExplain()) {
+            explainer.execute(() -> explain(database, command, slowQuery));
+        }
+    }
+
+    private void explain(String database, BsonDocument command, SlowQuery slowQuery) {
+        var explained = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!ENVELOPE_FIELDS.contains(key)) {
+                explained.put(key, value);
+            }
+        });
+
+        try {
+            var result = mongoClient.getObject().getDatabase(database).runCommand(
+                    new BsonDocument("explain", explained).append("verbosity", new BsonString("executionStats")), BsonDocument.class);
+            slowQuery.setPlan(plan(result));
+        } catch (RuntimeException e) {
+            log.debug("Explain da consulta lenta falhou", e);
+            slowQuery.setPlan(SlowQuery.Plan.builder().error(e.getMessage()).build());
+        }
+    }
+
+    // No aggregate o plano do $match inicial fica em stages[0].$cursor; nos demais comandos, na raiz
+    private static SlowQuery.Plan plan(BsonDocument result) {
+        var source = result;
+        if (!result.containsKey("executionStats") && result.get("stages") instanceof BsonArray) {
+            var first = result.getArray("stages").isEmpty() ? null : result.getArray("stages").get(0);
+            if (first != null && first.isDocument() && first.asDocument().get("$cursor") instanceof BsonDocument) {
+                source = first.asDocument().getDocument("$cursor");
+            }
+        }
+
+        var stats = source.get("executionStats") instanceof BsonDocument ? source.getDocument("executionStats") : new BsonDocument();
+        var planner = source.get("queryPlanner") instanceof BsonDocument ? source.getDocument("queryPlanner") : new BsonDocument();
+
+        return SlowQuery.Plan.builder()
+                .stage(stages(planner.get("winningPlan")))
+                .docsExamined(number(stats.get("totalDocsExamined")))
+                .keysExamined(number(stats.get("totalKeysExamined")))
+                .returned(number(stats.get("nReturned")))
+                .executionTimeMillis(number(stats.get("executionTimeMillis")))
+                .build();
+    }
+
+    private static String stages(BsonValue plan) {
+        var stages = new StringJoiner(" > ");
+        while (plan instanceof BsonDocument && plan.asDocument().containsKey("stage")) {
+            stages.add(plan.asDocument().getString("stage").getValue());
+            plan = plan.asDocument().get("inputStage");
+        }
+        return stages.length() == 0 ? null : stages.toString();
+    }
+
+    // Filtro e sort sao documentos; o pipeline do aggregate e um array de documentos
+    private static String json(BsonValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isArray()) {
+            return value.asArray().stream()
+                    .map(SlowQueryRecorder::json)
+                    .collect(Collectors.joining(", ", "[", "]"));
+        }
+        return value.isDocument() ? value.asDocument().toJson() : value.toString();
+    }
+
+    private static Long number(BsonValue value) {
+        return value != null && value.isNumber() ? value.asNumber().longValue() : null;
+    }
+}
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.io.Serializable;
@@ -16,6 +19,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+// Cada indice termina no _id: serve ao filtro pelo campo, a ordenacao da pagina e a do cursor (campo, id) sem sort em memoria.
+// Os campos iniciais sao os unicos aceitos no orderBy (LivroSortGuard); o IndexConfig cria e concilia os indices na subida
+@CompoundIndexes({
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "genre_id", def = "{'genre': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "genre_price_id", def = "{'genre': 1, 'price': 1, '_id': 1}", background = true),
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': 1, '_id': 1}", background = true)
+})
 public class Livro implements Serializable {
 
     private static final long serialVersionUID = -8271925344794286698L;
@@ -35,4 +46,8 @@ public class Livro implements Serializable {
 
     private String genre;
 
+    // Incrementada a cada escrita; PUT e PATCH com version falham se o documento mudou desde a leitura
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,30 @@
+package com.api.mongodb.models.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class LivroBulkOperationDTO implements Serializable {
+
+    private static final long serialVersionUID = 3418846213327592176L;
+
+    //Operacao a executar com o livro
+    @ApiModelProperty(position = 0, example = "INSERT")
+    private Operation operation;
+
+    //Livro da operacao; REPLACE e DELETE usam o id dele
+    @ApiModelProperty(position = 1)
+    private LivroDTO livro;
+
+    public enum Operation {
+        INSERT,
+        REPLACE,
+        DELETE
+    }
+}
@@ -0,0 +1,46 @@
+package com.api.mongodb.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Data
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LivroBulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = -2356172281648790612L;
+
+    //Posicao da operacao na requisicao
+    @ApiModelProperty(position = 0)
+    private int index;
+
+    //Id do livro criado, substituido ou excluido
+    @ApiModelProperty(position = 1)
+    private String id;
+
+    @ApiModelProperty(position = 2)
+    private LivroBulkOperationDTO.Operation operation;
+
+    @ApiModelProperty(position = 3)
+    private Status status;
+
+    //Motivo quando a operacao nao foi aplicada
+    @ApiModelProperty(position = 4)
+    private String message;
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        CONFLICT,
+        INVALID,
+        FAILED
+    }
+}
@@ -1,9 +1,14 @@
 package com.api.mongodb.models.dto;
 
 
+import com.api.mongodb.util.Constants;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
 
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 
@@ -12,6 +17,7 @@ import java.time.LocalDateTime;
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class LivroDTO implements Serializable {
 
     //Seta o ID Automatico
@@ -21,8 +27,10 @@ public class LivroDTO implements Serializable {
     @ApiModelProperty(position = 0)
     private String id;
 
-    //Cria o campo name no DTO
+    //Cria o campo name no DTO; obrigatorio no documento completo, com 3 a 120 caracteres quando enviado
     @ApiModelProperty(position = 1)
+    @NotBlank(groups = Complete.class, message = Constants.MESSAGE_NAME_REQUIRED)
+    @Size(min = 3, max = 120, message = Constants.LENGTH_FIELD)
     private String name;
 
     //Cria o campo description no DTO
@@ -31,6 +39,7 @@ public class LivroDTO implements Serializable {
 
     //Cria o campo price no DTO
     @ApiModelProperty(position = 3)
+    @PositiveOrZero(message = Constants.MESSAGE_NEGATIVE_PRICE)
     private Double price;
 
     //Cria o campo created at(data da criacao) no DTO
@@ -44,4 +53,12 @@ public class LivroDTO implements Serializable {
     //Cria o campo genre no DTO
     @ApiModelProperty(position = 6)
     private String genre;
+
+    //Versao do livro; enviada no PUT ou PATCH faz a edicao falhar com 409 se outro escritor passou na frente
+    @ApiModelProperty(position = 7)
+    private Long version;
+
+    //Grupo das validacoes do documento completo (criacao, substituicao, bulk e importacao); o PATCH valida so o grupo padrao
+    public interface Complete {
+    }
 }
\ No newline at end of file
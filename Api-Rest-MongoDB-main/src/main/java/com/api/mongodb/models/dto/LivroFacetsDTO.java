@@ -0,0 +1,65 @@
+package com.api.mongodb.models.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class LivroFacetsDTO implements Serializable {
+
+    private static final long serialVersionUID = -3346919205137265818L;
+
+    //Livros que casam com o filtro
+    @ApiModelProperty(position = 0)
+    private long total;
+
+    //Menor preco entre os livros do filtro
+    @ApiModelProperty(position = 1)
+    private Double minPrice;
+
+    //Maior preco entre os livros do filtro
+    @ApiModelProperty(position = 2)
+    private Double maxPrice;
+
+    //Quantidade por genero, da maior para a menor
+    @ApiModelProperty(position = 3)
+    private List<GenreCount> genres;
+
+    //Quantidade por faixa de preco, na ordem dos limites configurados
+    @ApiModelProperty(position = 4)
+    private List<PriceBucket> prices;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class GenreCount implements Serializable {
+
+        private static final long serialVersionUID = 2893402913357841626L;
+
+        private String genre;
+
+        private long count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PriceBucket implements Serializable {
+
+        private static final long serialVersionUID = -7210464391652950047L;
+
+        //Limite inferior (inclusivo); nulo na faixa "outros", com os precos fora dos limites
+        private Double from;
+
+        //Limite superior (exclusivo); nulo na faixa "outros"
+        private Double to;
+
+        private long count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.api.mongodb.models.dto;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class LivroImportResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 6153290437820561374L;
+
+    //Linhas gravadas no Mongo
+    @ApiModelProperty(position = 0)
+    private long inserted;
+
+    //Linhas que nao sao um LivroDTO valido
+    @ApiModelProperty(position = 1)
+    private long rejected;
+
+    //Linhas validas que o Mongo recusou
+    @ApiModelProperty(position = 2)
+    private long failed;
+
+    @ApiModelProperty(position = 3)
+    private List<LineError> errors;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class LineError implements Serializable {
+
+        private static final long serialVersionUID = -1841939020471216703L;
+
+        //Numero da linha no corpo da requisicao, a partir de 1
+        private long line;
+
+        private String message;
+    }
+}
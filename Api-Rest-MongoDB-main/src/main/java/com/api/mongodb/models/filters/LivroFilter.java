@@ -2,9 +2,14 @@ package com.api.mongodb.models.filters;
 
 import io.swagger.annotations.ApiModelProperty;
 import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.StringJoiner;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @ToString
 @AllArgsConstructor
 @NoArgsConstructor
@@ -12,6 +17,8 @@ public class LivroFilter {
 
     private static final long serialVersionUID = -5930278399953270569L;
 
+    public static final String SHAPE_NONE = "none";
+
     @ApiModelProperty(value = "Parâmetro de busca por nome ou descrição ou genero do Livro", example = "Livro terror")
     private String query;
 
@@ -21,16 +28,66 @@ public class LivroFilter {
     @ApiModelProperty(value = "Parâmetro de busca por preço máximo do Livro", example = "2.20")
     private Double max_price;
 
-    // Retorna verdadeiro se a Query estiver null e os valores nao nulos
-    public boolean filterByMinAndMaxPrice() {
-        return query == null && min_price != null && max_price != null;
+    @ApiModelProperty(value = "Parâmetro de busca pelo genero exato do Livro", example = "Terror")
+    private String genre;
+
+    @ApiModelProperty(value = "Parâmetro de busca por data de criação mínima do Livro (inclusiva)", example = "2022-08-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime created_from;
+
+    @ApiModelProperty(value = "Parâmetro de busca por data de criação máxima do Livro (exclusiva)", example = "2022-09-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime created_to;
+
+    @ApiModelProperty(value = "Inclui os limites da faixa de preço (padrão: exclusiva)", example = "true")
+    private Boolean price_inclusive;
+
+    // Retorna verdadeiro se a Query tiver texto
+    public boolean hasQuery() {
+        return StringUtils.hasText(query);
+    }
+
+    // Retorna verdadeiro se o genero tiver texto
+    public boolean hasGenre() {
+        return StringUtils.hasText(genre);
+    }
+
+    // Retorna verdadeiro se a faixa de preco inclui os limites
+    public boolean priceInclusive() {
+        return Boolean.TRUE.equals(price_inclusive);
+    }
+
+    // Copia do filtro sem a Query, para combinar os demais filtros com a busca pelo indice de texto
+    public LivroFilter withoutQuery() {
+        return toBuilder().query(null).build();
     }
-    // Retorna verdadeiro se a Query estiver preenchida e os numeros nulos
-    public boolean filterByNameOrDescriptionOrGenre() {return query != null && min_price == null && max_price == null;}
 
-    //Retorna Verdadeiro se a Query estiver preenchida e os numeros tambem.
-    public boolean filterByNameOrDescriptionAndMinMaxPrice() {
-        return query != null && min_price != null && max_price != null;
+    //Forma da busca nas metricas e chave do plano no LivroCriteria: os parametros preenchidos,
+    //como "query+genre+min_price+max_price", ou "none"
+    public String shape() {
+        var shape = new StringJoiner("+");
+        if (hasQuery()) {
+            shape.add("query");
+        }
+        if (hasGenre()) {
+            shape.add("genre");
+        }
+        if (min_price != null) {
+            shape.add("min_price");
+        }
+        if (max_price != null) {
+            shape.add("max_price");
+        }
+        if (priceInclusive() && (min_price != null || max_price != null)) {
+            shape.add("price_inclusive");
+        }
+        if (created_from != null) {
+            shape.add("created_from");
+        }
+        if (created_to != null) {
+            shape.add("created_to");
+        }
+        return shape.length() == 0 ? SHAPE_NONE : shape.toString();
     }
 
 }
@@ -0,0 +1,38 @@
+package com.api.mongodb.models.filters;
+
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.util.Constants;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Campos que podem ser pedidos no parametro fields= (viram a projecao da consulta no Mongo)
+public final class LivroProjection {
+
+    public static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "name", "description", "price", "createdAt", "updatedAt", "genre");
+
+    private LivroProjection() {
+    }
+
+    // Converte "id,name,price" em um conjunto de campos; vazio significa o documento completo
+    public static Set<String> parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return Collections.emptySet();
+        }
+
+        var projection = new LinkedHashSet<String>();
+        for (String field : fields.split(",")) {
+            var name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!PROJECTABLE_FIELDS.contains(name)) {
+                throw new FieldValidationException("fields", Constants.MESSAGE_INVALID_PROJECTION + name);
+            }
+            projection.add(name);
+        }
+        return projection;
+    }
+}
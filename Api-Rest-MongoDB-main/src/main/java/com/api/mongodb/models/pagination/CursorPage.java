@@ -0,0 +1,38 @@
+package com.api.mongodb.models.pagination;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+
+    @ApiModelProperty(position = 0)
+    private List<T> content;
+
+    @ApiModelProperty(position = 1)
+    private int size;
+
+    @ApiModelProperty(value = "Token para buscar a proxima pagina; nulo quando nao ha mais livros", position = 2)
+    private String next;
+
+    public static <T> CursorPage<T> empty(int size) {
+        return new CursorPage<>(List.of(), size, null);
+    }
+
+    // Converte o conteudo mantendo o token, como o Page.map
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        var converted = new ArrayList<R>(content.size());
+        for (T item : content) {
+            converted.add(converter.apply(item));
+        }
+        return new CursorPage<>(converted, size, next);
+    }
+}
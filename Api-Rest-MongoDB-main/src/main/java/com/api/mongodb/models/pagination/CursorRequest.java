@@ -0,0 +1,24 @@
+package com.api.mongodb.models.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorRequest {
+
+    // Campo de ordenacao (o desempate e sempre feito pelo id)
+    private String orderBy;
+
+    // Direcao da ordenacao, aplicada tambem ao desempate
+    private Sort.Direction direction;
+
+    // Quantidade de livros por pagina
+    private int size;
+
+    // Token opaco devolvido pela pagina anterior (nulo ou vazio na primeira pagina)
+    private String next;
+}
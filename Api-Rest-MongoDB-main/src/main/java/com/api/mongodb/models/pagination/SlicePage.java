@@ -0,0 +1,36 @@
+package com.api.mongodb.models.pagination;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SlicePage<T> {
+
+    @ApiModelProperty(position = 0)
+    private List<T> content;
+
+    @ApiModelProperty(position = 1)
+    private int number;
+
+    @ApiModelProperty(position = 2)
+    private int size;
+
+    @ApiModelProperty(position = 3)
+    private boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @ApiModelProperty(value = "Total aproximado (estimatedDocumentCount ou contagem em cache), so quando estimate=true", position = 4)
+    private Long estimatedTotal;
+
+    public static <T> SlicePage<T> of(Slice<T> slice, Long estimatedTotal) {
+        return new SlicePage<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), estimatedTotal);
+    }
+}
@@ -0,0 +1,405 @@
+package com.api.mongodb.replica;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.filters.LivroFilter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Copia da colecao products em colunas: um array por campo e uma linha (slot) por livro.
+// Preco, datas e version ficam em arrays primitivos, o genero num dicionario de codigos; as linhas excluidas sao reaproveitadas.
+// Leituras dividem um read lock e cada escrita de linha pega o write lock por O(1)
+public class LivroColumns {
+
+    // Valor das colunas primitivas para campo nulo
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    private static final int NO_GENRE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private final List<String> genreDictionary = new ArrayList<>();
+
+    private final Map<String, Integer> genreCodes = new HashMap<>();
+
+    private int[] free = new int[16];
+    private int freeCount;
+
+    private int capacity;
+    private String[] ids = new String[0];
+    private String[] names = new String[0];
+    private String[] descriptions = new String[0];
+    private double[] prices = new double[0];
+    private int[] genres = new int[0];
+    private long[] createdAt = new long[0];
+    private long[] updatedAt = new long[0];
+    private long[] versions = new long[0];
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Generos distintos ja vistos (o dicionario nao encolhe quando um genero deixa de existir)
+    public int genreCount() {
+        lock.readLock().lock();
+        try {
+            return genreDictionary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Troca todo o conteudo pelos livros da carga inicial ou de uma recarga
+    public void replaceAll(Collection<Livro> livros) {
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            freeCount = 0;
+            capacity = 0;
+            resize(Math.max(16, livros.size()));
+            for (var livro : livros) {
+                write(slot(livro.getId()), livro);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void upsert(Livro livro) {
+        lock.writeLock().lock();
+        try {
+            write(slot(livro.getId()), livro);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            var slot = slots.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            ids[slot] = null;
+            names[slot] = null;
+            descriptions[slot] = null;
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, free.length * 2);
+            }
+            free[freeCount++] = slot;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids de todas as linhas, para conferir exclusoes contra o Mongo
+    public List<String> ids() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(slots.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Livro> findById(String id) {
+        lock.readLock().lock();
+        try {
+            var slot = slots.get(id);
+            return slot == null ? Optional.empty() : Optional.of(read(slot));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mesma semantica do LivroCriteria sobre as colunas; vazio quando a ordenacao pede um campo que nao esta nas colunas
+    public Optional<Page<Livro>> search(LivroFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            var comparator = comparator(pageable.getSort());
+            if (comparator == null) {
+                return Optional.empty();
+            }
+            var matches = matches(filter);
+            var total = matches.length;
+
+            if (pageable.isUnpaged()) {
+                return Optional.of(new PageImpl<>(rows(sorted(matches, comparator), 0, total), pageable, total));
+            }
+
+            var offset = (int) Math.min(pageable.getOffset(), total);
+            var end = (int) Math.min((long) offset + pageable.getPageSize(), total);
+            return Optional.of(new PageImpl<>(rows(topK(matches, comparator, end), offset, end), pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Linhas que passam em todos os filtros preenchidos; o genero e comparado pelo codigo e a regex roda uma vez por genero
+    private int[] matches(LivroFilter filter) {
+        var hasFilter = filter != null && !LivroFilter.SHAPE_NONE.equals(filter.shape());
+
+        var genreCode = NO_GENRE;
+        if (hasFilter && filter.hasGenre()) {
+            var code = genreCodes.get(filter.getGenre());
+            if (code == null) {
+                return new int[0];
+            }
+            genreCode = code;
+        }
+
+        var pattern = hasFilter && filter.hasQuery() ? pattern(filter.getQuery()) : null;
+        if (hasFilter && filter.hasQuery() && pattern == null) {
+            return new int[0];
+        }
+        boolean[] genreMatches = null;
+        if (pattern != null) {
+            genreMatches = new boolean[genreDictionary.size()];
+            for (int code = 0; code < genreMatches.length; code++) {
+                genreMatches[code] = pattern.matcher(genreDictionary.get(code)).find();
+            }
+        }
+
+        var min = hasFilter ? filter.getMin_price() : null;
+        var max = hasFilter ? filter.getMax_price() : null;
+        var inclusive = hasFilter && filter.priceInclusive();
+        var from = hasFilter ? epoch(filter.getCreated_from()) : NULL_LONG;
+        var to = hasFilter ? epoch(filter.getCreated_to()) : NULL_LONG;
+
+        var result = new int[slots.size()];
+        var count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            if (ids[slot] == null) {
+                continue;
+            }
+            if (genreCode != NO_GENRE && genres[slot] != genreCode) {
+                continue;
+            }
+            if ((min != null || max != null) && !inRange(prices[slot], min, max, inclusive)) {
+                continue;
+            }
+            if (from != NULL_LONG && (createdAt[slot] == NULL_LONG || createdAt[slot] < from)) {
+                continue;
+            }
+            if (to != NULL_LONG && (createdAt[slot] == NULL_LONG || createdAt[slot] >= to)) {
+                continue;
+            }
+            if (pattern != null && !textMatches(slot, pattern, genreMatches)) {
+                continue;
+            }
+            result[count++] = slot;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // O $or do LivroCriteria: o genero da linha (ja calculado por codigo), o nome ou a descricao
+    private boolean textMatches(int slot, Pattern pattern, boolean[] genreMatches) {
+        if (genres[slot] != NO_GENRE && genreMatches[genres[slot]]) {
+            return true;
+        }
+        return (names[slot] != null && pattern.matcher(names[slot]).find())
+                || (descriptions[slot] != null && pattern.matcher(descriptions[slot]).find());
+    }
+
+    private static boolean inRange(double price, Double min, Double max, boolean inclusive) {
+        if (Double.isNaN(price)) {
+            return false;
+        }
+        if (min != null && (inclusive ? price < min : price <= min)) {
+            return false;
+        }
+        return max == null || (inclusive ? price <= max : price < max);
+    }
+
+    private static Pattern pattern(String query) {
+        try {
+            return Pattern.compile(query, Pattern.CASE_INSENSITIVE);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    // Ordem das linhas para o Sort pedido, com o id como desempate; nulo quando algum campo nao e uma coluna
+    private Comparator<Integer> comparator(Sort sort) {
+        Comparator<Integer> comparator = null;
+        for (var order : sort) {
+            var field = column(order.getProperty());
+            if (field == null) {
+                return null;
+            }
+            var ordered = order.isAscending() ? field : field.reversed();
+            comparator = comparator == null ? ordered : comparator.thenComparing(ordered);
+        }
+        Comparator<Integer> byId = (a, b) -> ids[a].compareTo(ids[b]);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // Nulos primeiro na ordem crescente, como no Mongo
+    private Comparator<Integer> column(String property) {
+        switch (property) {
+            case "id":
+            case "_id":
+                return (a, b) -> ids[a].compareTo(ids[b]);
+            case "name":
+                return Comparator.comparing(slot -> names[slot], Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "description":
+                return Comparator.comparing(slot -> descriptions[slot], Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "genre":
+                return Comparator.comparing(slot -> genres[slot] == NO_GENRE ? null : genreDictionary.get(genres[slot]),
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "price":
+                return (a, b) -> comparePrices(prices[a], prices[b]);
+            case "createdAt":
+                return (a, b) -> Long.compare(createdAt[a], createdAt[b]);
+            case "updatedAt":
+                return (a, b) -> Long.compare(updatedAt[a], updatedAt[b]);
+            default:
+                return null;
+        }
+    }
+
+    private static int comparePrices(double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return Boolean.compare(!Double.isNaN(a), !Double.isNaN(b));
+        }
+        return Double.compare(a, b);
+    }
+
+    private static Integer[] sorted(int[] matches, Comparator<Integer> comparator) {
+        var boxed = Arrays.stream(matches).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, comparator);
+        return boxed;
+    }
+
+    // Mantem so as k primeiras linhas num heap, sem ordenar todas as que casaram
+    private static Integer[] topK(int[] matches, Comparator<Integer> comparator, int k) {
+        if (k == 0) {
+            return new Integer[0];
+        }
+        if (k >= matches.length / 2) {
+            return sorted(matches, comparator);
+        }
+        var heap = new PriorityQueue<Integer>(k + 1, comparator.reversed());
+        for (var slot : matches) {
+            heap.add(slot);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        var top = heap.toArray(new Integer[0]);
+        Arrays.sort(top, comparator);
+        return top;
+    }
+
+    private List<Livro> rows(Integer[] ordered, int from, int to) {
+        var rows = new ArrayList<Livro>(to - from);
+        for (int i = from; i < to; i++) {
+            rows.add(read(ordered[i]));
+        }
+        return rows;
+    }
+
+    private Livro read(int slot) {
+        return Livro.builder()
+                .id(ids[slot])
+                .name(names[slot])
+                .description(descriptions[slot])
+                .price(Double.isNaN(prices[slot]) ? null : prices[slot])
+                .genre(genres[slot] == NO_GENRE ? null : genreDictionary.get(genres[slot]))
+                .createdAt(dateTime(createdAt[slot]))
+                .updatedAt(dateTime(updatedAt[slot]))
+                .version(versions[slot] == NULL_LONG ? null : versions[slot])
+                .build();
+    }
+
+    private void write(int slot, Livro livro) {
+        ids[slot] = livro.getId();
+        names[slot] = livro.getName();
+        descriptions[slot] = livro.getDescription();
+        prices[slot] = livro.getPrice() == null ? Double.NaN : livro.getPrice();
+        genres[slot] = genreCode(livro.getGenre());
+        createdAt[slot] = epoch(livro.getCreatedAt());
+        updatedAt[slot] = epoch(livro.getUpdatedAt());
+        versions[slot] = livro.getVersion() == null ? NULL_LONG : livro.getVersion();
+    }
+
+    // Linha do id, ou uma nova (reaproveitando uma excluida) quando o livro ainda nao esta nas colunas
+    private int slot(String id) {
+        var slot = slots.get(id);
+        if (slot != null) {
+            return slot;
+        }
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if (capacity == ids.length) {
+                resize(Math.max(16, ids.length * 2));
+            }
+            slot = capacity++;
+        }
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private int genreCode(String genre) {
+        if (genre == null) {
+            return NO_GENRE;
+        }
+        return genreCodes.computeIfAbsent(genre, key -> {
+            genreDictionary.add(key);
+            return genreDictionary.size() - 1;
+        });
+    }
+
+    private void resize(int length) {
+        ids = Arrays.copyOf(ids, length);
+        names = Arrays.copyOf(names, length);
+        descriptions = Arrays.copyOf(descriptions, length);
+        prices = Arrays.copyOf(prices, length);
+        genres = Arrays.copyOf(genres, length);
+        createdAt = Arrays.copyOf(createdAt, length);
+        updatedAt = Arrays.copyOf(updatedAt, length);
+        versions = Arrays.copyOf(versions, length);
+    }
+
+    // LocalDateTime em nanossegundos desde a epoca (UTC so como referencia; so a ordem importa)
+    private static long epoch(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_LONG;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + dateTime.getNano();
+    }
+
+    private static LocalDateTime dateTime(long epoch) {
+        if (epoch == NULL_LONG) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epoch, 1_000_000_000L), (int) Math.floorMod(epoch, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
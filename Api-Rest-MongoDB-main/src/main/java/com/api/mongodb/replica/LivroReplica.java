@@ -0,0 +1,318 @@
+package com.api.mongodb.replica;
+
+import com.api.mongodb.configuration.ReplicaPropertiesConfig;
+import com.api.mongodb.configuration.ReplicaPropertiesConfig.ReplicaMode;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Copia em memoria da colecao products (LivroColumns) para as leituras do LivroService, ligada por api.replica.enabled.
+// Carrega tudo na subida e acompanha as escritas pelo change stream; sem replica set, por polling do createdAt/updatedAt.
+// Metricas: livro.replica.lag (quanto a copia pode estar atrasada) e livro.replica.size
+@Slf4j
+@Component
+public class LivroReplica implements DisposableBean {
+
+    // Codigo do Mongo para $changeStream fora de replica set
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    private final ReplicaPropertiesConfig properties;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LivroColumns columns = new LivroColumns();
+
+    private volatile boolean ready;
+
+    private volatile boolean running;
+
+    // Momento ate o qual a copia com certeza viu todas as escritas
+    private volatile long caughtUpAt;
+
+    private volatile MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private Thread feeder;
+
+    public LivroReplica(ReplicaPropertiesConfig properties, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+
+        TimeGauge.builder("livro.replica.lag", this, TimeUnit.MILLISECONDS, LivroReplica::lagMillis)
+                .description("Atraso maximo da copia em memoria dos livros em relacao ao Mongo")
+                .register(meterRegistry);
+        Gauge.builder("livro.replica.size", columns, LivroColumns::size)
+                .description("Livros na copia em memoria")
+                .register(meterRegistry);
+    }
+
+    // Carrega e acompanha a colecao numa thread propria, sem segurar a subida da aplicacao
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        feeder = new Thread(this::feed, "livro-replica");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        running = false;
+        ready = false;
+        closeCursor();
+        if (feeder != null) {
+            feeder.interrupt();
+        }
+    }
+
+    // Verdadeiro depois da carga inicial; antes disso o LivroService le do Mongo
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Pagina dos livros do filtro (nulo para todos); vazio quando a copia nao esta pronta ou nao ordena pelo campo pedido
+    public Optional<Page<Livro>> search(LivroFilter filter, Pageable pageable) {
+        return ready ? columns.search(filter, pageable) : Optional.empty();
+    }
+
+    public Optional<Livro> findById(String id) {
+        return ready ? columns.findById(id) : Optional.empty();
+    }
+
+    // Escritas desta instancia entram na copia na hora, sem esperar o change stream ou o polling
+    public void upsert(Livro livro) {
+        if (ready && livro.getId() != null) {
+            columns.upsert(livro);
+        }
+    }
+
+    public void remove(String id) {
+        if (ready) {
+            columns.remove(id);
+        }
+    }
+
+    private double lagMillis() {
+        return ready ? System.currentTimeMillis() - caughtUpAt : Double.NaN;
+    }
+
+    private void feed() {
+        var mode = properties.getMode();
+        if (mode != ReplicaMode.POLLING && !feedChangeStream(mode == ReplicaMode.AUTO)) {
+            log.info("Change stream indisponivel (o Mongo nao e replica set); copia de livros acompanhada por polling");
+            mode = ReplicaMode.POLLING;
+        }
+        if (mode == ReplicaMode.POLLING) {
+            feedPolling();
+        }
+    }
+
+    // Abre o change stream antes da carga, para nao perder o que for escrito durante ela, e aplica os eventos em ordem.
+    // Depois de uma falha retoma pelo resume token; se nem isso der, recarrega tudo. Falso quando o Mongo nao tem change stream
+    private boolean feedChangeStream(boolean fallback) {
+        BsonDocument resumeToken = null;
+        while (running) {
+            var opened = false;
+            try (var changes = open(resumeToken)) {
+                opened = true;
+                cursor = changes;
+                if (resumeToken == null) {
+                    load();
+                }
+                while (running) {
+                    var change = changes.tryNext();
+                    if (change == null) {
+                        caughtUpAt = System.currentTimeMillis();
+                    } else if (!apply(change)) {
+                        resumeToken = null;
+                        break;
+                    }
+                    if (changes.getResumeToken() != null) {
+                        resumeToken = changes.getResumeToken();
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (fallback && e.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                    return false;
+                }
+                resumeToken = retry(e, opened, resumeToken);
+            } catch (RuntimeException e) {
+                resumeToken = retry(e, opened, resumeToken);
+            } finally {
+                cursor = null;
+            }
+        }
+        return true;
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open(BsonDocument resumeToken) {
+        var watch = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Livro.class)).watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(properties.getMaxAwait().toMillis(), TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            watch.resumeAfter(resumeToken);
+        }
+        return watch.cursor();
+    }
+
+    // Falha ao reabrir com o token (historico do oplog perdido) faz a proxima tentativa recarregar tudo
+    private BsonDocument retry(RuntimeException e, boolean opened, BsonDocument resumeToken) {
+        if (!running) {
+            return resumeToken;
+        }
+        log.warn("Falha no change stream da copia de livros; tentando de novo em {}", properties.getRetryDelay(), e);
+        sleep(properties.getRetryDelay().toMillis());
+        return opened ? resumeToken : null;
+    }
+
+    // Falso para eventos que invalidam o stream (drop, rename, invalidate): a colecao precisa ser recarregada
+    private boolean apply(ChangeStreamDocument<Document> change) {
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                // sem fullDocument o livro foi excluido antes da leitura do updateLookup
+                if (change.getFullDocument() == null) {
+                    columns.remove(id(change.getDocumentKey().get("_id")));
+                } else {
+                    columns.upsert(mongoTemplate.getConverter().read(Livro.class, change.getFullDocument()));
+                }
+                return true;
+            case DELETE:
+                columns.remove(id(change.getDocumentKey().get("_id")));
+                return true;
+            case DROP:
+            case RENAME:
+            case DROP_DATABASE:
+            case INVALIDATE:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    // Sem change stream: a cada pollInterval rele os livros criados ou alterados desde a ultima consulta (menos o pollOverlap).
+    // Exclusoes nao deixam rastro no documento; quando a contagem do Mongo difere da copia, os ids excluidos sao removidos
+    private void feedPolling() {
+        LocalDateTime watermark = null;
+        while (running) {
+            try {
+                if (watermark == null) {
+                    var next = LocalDateTime.now();
+                    load();
+                    watermark = next;
+                } else {
+                    sleep(properties.getPollInterval().toMillis());
+                    var startedAt = System.currentTimeMillis();
+                    var next = LocalDateTime.now();
+                    poll(watermark.minus(properties.getPollOverlap()));
+                    watermark = next;
+                    caughtUpAt = startedAt;
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Falha no polling da copia de livros; tentando de novo em {}", properties.getRetryDelay(), e);
+                sleep(properties.getRetryDelay().toMillis());
+            }
+        }
+    }
+
+    private void poll(LocalDateTime since) {
+        var changed = new Query(new Criteria().orOperator(
+                Criteria.where("updatedAt").gte(since),
+                Criteria.where("createdAt").gte(since)));
+        try (var livros = mongoTemplate.stream(changed, Livro.class)) {
+            livros.forEachRemaining(columns::upsert);
+        }
+
+        if (mongoTemplate.estimatedCount(Livro.class) != columns.size()) {
+            removeDeleted();
+        }
+    }
+
+    private void removeDeleted() {
+        var query = new Query();
+        query.fields().include("_id");
+        var existing = new HashSet<String>();
+        try (var ids = mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Livro.class))) {
+            ids.forEachRemaining(document -> existing.add(id(document.get("_id"))));
+        }
+        for (var id : columns.ids()) {
+            if (!existing.contains(id)) {
+                columns.remove(id);
+            }
+        }
+    }
+
+    private void load() {
+        var startedAt = System.currentTimeMillis();
+        columns.replaceAll(mongoTemplate.findAll(Livro.class));
+        caughtUpAt = startedAt;
+        ready = true;
+        log.info("Copia de livros carregada: {} livros, {} generos em {} ms",
+                columns.size(), columns.genreCount(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void closeCursor() {
+        var current = cursor;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (RuntimeException e) {
+                log.debug("Falha ao fechar o change stream da copia de livros", e);
+            }
+        }
+    }
+
+    // O id do Livro e a string hexadecimal do ObjectId
+    private static String id(Object value) {
+        if (value instanceof BsonValue) {
+            var bson = (BsonValue) value;
+            if (bson.isObjectId()) {
+                return bson.asObjectId().getValue().toHexString();
+            }
+            return bson.isString() ? bson.asString().getValue() : bson.toString();
+        }
+        if (value instanceof ObjectId) {
+            return ((ObjectId) value).toHexString();
+        }
+        return String.valueOf(value);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
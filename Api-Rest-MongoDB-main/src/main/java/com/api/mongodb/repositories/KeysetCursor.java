@@ -0,0 +1,58 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.exceptions.DataIntegrityException;
+import com.api.mongodb.util.Constants;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Token opaco da paginacao por cursor: ultimo valor da ordenacao e ultimo id, em Extended JSON + Base64 URL
+final class KeysetCursor {
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder().outputMode(JsonMode.EXTENDED).build();
+
+    private final String orderBy;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final String id;
+
+    KeysetCursor(String orderBy, Sort.Direction direction, Object value, String id) {
+        this.orderBy = orderBy;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    Object getValue() {
+        return value;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    String encode() {
+        var json = new Document("o", orderBy).append("d", direction.name()).append("v", value).append("i", id).toJson(JSON);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decodifica o token e confere se ele foi gerado para a mesma ordenacao da requisicao
+    static KeysetCursor decode(String token, String orderBy, Sort.Direction direction) {
+        Document document;
+        try {
+            document = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            throw new DataIntegrityException(Constants.MESSAGE_INVALID_CURSOR, e);
+        }
+
+        if (!orderBy.equals(document.getString("o")) || !direction.name().equals(document.getString("d"))
+                || document.getString("i") == null) {
+            throw new DataIntegrityException(Constants.MESSAGE_INVALID_CURSOR);
+        }
+        return new KeysetCursor(orderBy, direction, document.get("v"), document.getString("i"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.models.filters.LivroFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Monta a Criteria de busca de qualquer combinacao dos campos do LivroFilter, para as consultas montadas no MongoTemplate.
+// Os passos de cada forma de filtro (LivroFilter.shape) sao escolhidos uma vez e guardados; a cada busca so os valores sao aplicados
+public final class LivroCriteria {
+
+    // Planos por forma de filtro; as formas possiveis sao poucas, entao o mapa nao precisa de limite
+    private static final Map<String, List<BiConsumer<Criteria, LivroFilter>>> PLANS = new ConcurrentHashMap<>();
+
+    private LivroCriteria() {
+    }
+
+    // Retorna nulo quando nenhum filtro foi preenchido (o repositorio busca todos os livros)
+    public static Criteria of(LivroFilter filter) {
+        var shape = filter.shape();
+        if (LivroFilter.SHAPE_NONE.equals(shape)) {
+            return null;
+        }
+        var criteria = new Criteria();
+        PLANS.computeIfAbsent(shape, key -> plan(filter)).forEach(step -> step.accept(criteria, filter));
+        return criteria;
+    }
+
+    // Mesma Criteria restrita aos ids candidatos do indice de trigramas; a regex continua na consulta e confirma cada um
+    public static Criteria of(LivroFilter filter, Collection<String> ids) {
+        var criteria = of(filter);
+        return (criteria == null ? new Criteria() : criteria).and("id").in(ids);
+    }
+
+    // Quantidade de formas de filtro ja planejadas
+    public static int plannedShapes() {
+        return PLANS.size();
+    }
+
+    // Os campos saem num unico documento, na ordem dos indices: igualdade do genero, faixas de preco e de criacao,
+    // e por ultimo o $or de regex, que nao usa indice e so filtra o que os outros campos ja restringiram
+    private static List<BiConsumer<Criteria, LivroFilter>> plan(LivroFilter filter) {
+        var steps = new ArrayList<BiConsumer<Criteria, LivroFilter>>();
+
+        if (filter.hasGenre()) {
+            steps.add((criteria, f) -> criteria.and("genre").is(f.getGenre()));
+        }
+        if (filter.getMin_price() != null || filter.getMax_price() != null) {
+            steps.add(priceRange(filter));
+        }
+        if (filter.getCreated_from() != null || filter.getCreated_to() != null) {
+            steps.add(createdAtRange(filter));
+        }
+        if (filter.hasQuery()) {
+            steps.add(filter.hasGenre() ? LivroCriteria::nameOrDescriptionInGenre : LivroCriteria::nameOrDescriptionOrGenre);
+        }
+        return List.copyOf(steps);
+    }
+
+    private static BiConsumer<Criteria, LivroFilter> priceRange(LivroFilter filter) {
+        boolean min = filter.getMin_price() != null;
+        boolean max = filter.getMax_price() != null;
+        if (filter.priceInclusive()) {
+            return (criteria, f) -> {
+                var price = criteria.and("price");
+                if (min) {
+                    price.gte(f.getMin_price());
+                }
+                if (max) {
+                    price.lte(f.getMax_price());
+                }
+            };
+        }
+        return (criteria, f) -> {
+            var price = criteria.and("price");
+            if (min) {
+                price.gt(f.getMin_price());
+            }
+            if (max) {
+                price.lt(f.getMax_price());
+            }
+        };
+    }
+
+    // Faixa de criacao semiaberta: created_from inclusivo e created_to exclusivo
+    private static BiConsumer<Criteria, LivroFilter> createdAtRange(LivroFilter filter) {
+        boolean from = filter.getCreated_from() != null;
+        boolean to = filter.getCreated_to() != null;
+        return (criteria, f) -> {
+            var createdAt = criteria.and("createdAt");
+            if (from) {
+                createdAt.gte(f.getCreated_from());
+            }
+            if (to) {
+                createdAt.lt(f.getCreated_to());
+            }
+        };
+    }
+
+    private static void nameOrDescriptionOrGenre(Criteria criteria, LivroFilter filter) {
+        criteria.orOperator(
+                Criteria.where("name").regex(filter.getQuery(), "i"),
+                Criteria.where("description").regex(filter.getQuery(), "i"),
+                Criteria.where("genre").regex(filter.getQuery(), "i"));
+    }
+
+    // Com o genero fixo, a regex do genero vale o mesmo para todos os documentos: quando casa, o $or inteiro
+    // e verdadeiro e sai da consulta; quando nao casa, sobram so nome e descricao
+    private static void nameOrDescriptionInGenre(Criteria criteria, LivroFilter filter) {
+        if (genreMatches(filter.getQuery(), filter.getGenre())) {
+            return;
+        }
+        criteria.orOperator(
+                Criteria.where("name").regex(filter.getQuery(), "i"),
+                Criteria.where("description").regex(filter.getQuery(), "i"));
+    }
+
+    private static boolean genreMatches(String query, String genre) {
+        try {
+            return Pattern.compile(query, Pattern.CASE_INSENSITIVE).matcher(genre).find();
+        } catch (PatternSyntaxException e) {
+            return false;
+        }
+    }
+}
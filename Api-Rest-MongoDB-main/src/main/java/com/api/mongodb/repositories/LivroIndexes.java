@@ -0,0 +1,60 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.models.Livro;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Indices declarados no Livro (@CompoundIndex/@Indexed), lidos do mapeamento do Spring Data
+public final class LivroIndexes {
+
+    private LivroIndexes() {
+    }
+
+    public static List<IndexDefinition> declared(MongoMappingContext mappingContext) {
+        var indexes = new ArrayList<IndexDefinition>();
+        IndexResolver.create(mappingContext).resolveIndexFor(Livro.class).forEach(indexes::add);
+        return indexes;
+    }
+
+    // Campos que abrem algum indice (o _id como "id"): ordenar por eles nunca vira sort em memoria
+    public static Set<String> sortableFields(MongoMappingContext mappingContext) {
+        var fields = new LinkedHashSet<String>();
+        fields.add("id");
+        for (IndexDefinition index : declared(mappingContext)) {
+            var first = index.getIndexKeys().keySet().iterator().next();
+            fields.add("_id".equals(first) ? "id" : first);
+        }
+        return fields;
+    }
+
+    // Mesmas chaves na mesma ordem e direcao; o shell grava 1.0 onde o driver grava 1
+    public static boolean sameKeys(Document declared, Document existing) {
+        var declaredKeys = new ArrayList<>(declared.entrySet());
+        var existingKeys = new ArrayList<>(existing.entrySet());
+        if (declaredKeys.size() != existingKeys.size()) {
+            return false;
+        }
+        for (int i = 0; i < declaredKeys.size(); i++) {
+            var a = declaredKeys.get(i);
+            var b = existingKeys.get(i);
+            if (!a.getKey().equals(b.getKey()) || !sameDirection(a.getValue(), b.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameDirection(Object declared, Object existing) {
+        if (declared instanceof Number && existing instanceof Number) {
+            return Math.signum(((Number) declared).doubleValue()) == Math.signum(((Number) existing).doubleValue());
+        }
+        return declared.equals(existing);
+    }
+}
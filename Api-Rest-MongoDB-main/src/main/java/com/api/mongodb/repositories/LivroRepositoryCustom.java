@@ -0,0 +1,54 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Consultas do LivroRepository que precisam do MongoTemplate
+public interface LivroRepositoryCustom {
+
+    // Busca pelo indice de texto, ordenada por relevancia (textScore), com os demais filtros (LivroCriteria) e projecao opcionais
+    Page<LivroDTO> findByText(Pageable pageable, String query, Criteria filter, Set<String> fields);
+
+    // Pagina com projecao: so os campos pedidos saem do banco (filtro nulo busca todos os livros)
+    Page<LivroDTO> findProjected(Criteria filter, Pageable pageable, Set<String> fields);
+
+    // Busca por id com projecao
+    Optional<LivroDTO> findProjectedById(String id, Set<String> fields);
+
+    // Busca por id so o que identifica a versao do livro (version, createdAt e updatedAt), para a ETag
+    Optional<Livro> findVersionById(String id);
+
+    // Aplica o update e incrementa a version numa unica findAndModify, devolvendo o livro ja alterado.
+    // Com version so altera se ela ainda for a mesma; vazio quando nenhum documento casou
+    Optional<Livro> modify(String id, Long version, Update update);
+
+    // Exclui pelo id numa unica ida ao Mongo; falso quando nenhum documento foi excluido
+    boolean remove(String id);
+
+    // Existencia pelo id lendo so o _id, respondida pelo proprio indice do _id (consulta coberta)
+    boolean idExists(String id);
+
+    // Pagina por cursor (keyset): filtra a partir do ultimo valor de ordenacao + id, sem skip e sem count
+    CursorPage<Livro> findByCursor(Criteria filter, CursorRequest request);
+
+    // Pagina sem count: busca um livro a mais so para saber se existe proxima pagina
+    Slice<Livro> findSlice(Criteria filter, Pageable pageable);
+
+    // Total aproximado: estimatedDocumentCount sem filtro, ou a contagem do filtro mantida em cache
+    long estimateCount(Criteria filter);
+
+    // Facetas do filtro numa unica agregacao $facet: contagem por genero, faixas de preco ($bucket) e preco minimo/maximo
+    LivroFacetsDTO facets(Criteria filter, List<Double> priceBoundaries);
+}
@@ -0,0 +1,289 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.configuration.PagingPropertiesConfig;
+import com.api.mongodb.exceptions.DataIntegrityException;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import com.api.mongodb.util.Constants;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class LivroRepositoryImpl implements LivroRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    // _id da faixa do $bucket com os precos fora dos limites (ou sem preco)
+    private static final String OTHER_PRICES = "outros";
+
+    // Contagens de buscas filtradas, pelo hash do filtro serializado, limitadas a countCacheSize e com validade (countCacheTtl)
+    private final Cache<String, Long> countCache;
+
+    public LivroRepositoryImpl(MongoTemplate mongoTemplate, PagingPropertiesConfig pagingProperties) {
+        this.mongoTemplate = mongoTemplate;
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(pagingProperties.getCountCacheSize())
+                .expireAfterWrite(pagingProperties.getCountCacheTtl())
+                .build();
+    }
+
+    @Override
+    public Page<LivroDTO> findByText(Pageable pageable, String query, Criteria filter, Set<String> fields) {
+        var text = TextCriteria.forDefaultLanguage().matching(query);
+
+        var textQuery = TextQuery.queryText(text).sortByScore();
+        var countQuery = new Query().addCriteria(text);
+        if (filter != null) {
+            textQuery.addCriteria(filter);
+            countQuery.addCriteria(filter);
+        }
+
+        project(textQuery, fields);
+        var content = mongoTemplate.find(textQuery.with(pageable), LivroDTO.class, mongoTemplate.getCollectionName(Livro.class));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.count(countQuery, Livro.class));
+    }
+
+    @Override
+    public Page<LivroDTO> findProjected(Criteria filter, Pageable pageable, Set<String> fields) {
+        var query = filter == null ? new Query() : new Query(filter);
+        var countQuery = filter == null ? new Query() : new Query(filter);
+
+        project(query, fields);
+        var content = mongoTemplate.find(query.with(pageable), LivroDTO.class, mongoTemplate.getCollectionName(Livro.class));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> mongoTemplate.count(countQuery, Livro.class));
+    }
+
+    @Override
+    public Optional<LivroDTO> findProjectedById(String id, Set<String> fields) {
+        var query = new Query(Criteria.where("id").is(id));
+        project(query, fields);
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, LivroDTO.class, mongoTemplate.getCollectionName(Livro.class)));
+    }
+
+    @Override
+    public Optional<Livro> findVersionById(String id) {
+        var query = new Query(Criteria.where("id").is(id));
+        query.fields().include("version", "createdAt", "updatedAt");
+
+        return Optional.ofNullable(mongoTemplate.findOne(query, Livro.class));
+    }
+
+    @Override
+    public Optional<Livro> modify(String id, Long version, Update update) {
+        var criteria = Criteria.where("id").is(id);
+        if (version != null) {
+            criteria.and("version").is(version);
+        }
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(new Query(criteria), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true), Livro.class));
+    }
+
+    @Override
+    public boolean remove(String id) {
+        return mongoTemplate.remove(new Query(Criteria.where("id").is(id)), Livro.class).getDeletedCount() > 0;
+    }
+
+    @Override
+    public boolean idExists(String id) {
+        var query = new Query(Criteria.where("id").is(id));
+        query.fields().include("id");
+
+        // Document em vez de Livro: sem conversao de entidade para um resultado que so tem o _id
+        return mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Livro.class)) != null;
+    }
+
+    // Inclui apenas os campos pedidos (o _id sempre volta); sem campos o documento vem completo
+    private void project(Query query, Set<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            query.fields().include(fields.toArray(new String[0]));
+        }
+    }
+
+    @Override
+    public CursorPage<Livro> findByCursor(Criteria filter, CursorRequest request) {
+        var entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Livro.class);
+        var property = entity.getPersistentProperty(request.getOrderBy());
+        if (property == null) {
+            throw new DataIntegrityException(Constants.MESSAGE_INVALID_SORT_FIELD + request.getOrderBy());
+        }
+        var direction = request.getDirection();
+        var orderById = property.isIdProperty();
+
+        var criteria = new ArrayList<Criteria>(2);
+        if (filter != null) {
+            criteria.add(filter);
+        }
+        if (StringUtils.hasText(request.getNext())) {
+            var cursor = KeysetCursor.decode(request.getNext(), request.getOrderBy(), direction);
+            criteria.add(orderById ? idAfter(cursor.getId(), direction) : keyAfter(request.getOrderBy(), cursor, direction));
+        }
+
+        var query = new Query();
+        if (!criteria.isEmpty()) {
+            query.addCriteria(criteria.size() == 1 ? criteria.get(0) : new Criteria().andOperator(criteria.toArray(new Criteria[0])));
+        }
+        var sort = orderById ? Sort.by(direction, "id") : Sort.by(direction, request.getOrderBy()).and(Sort.by(direction, "id"));
+        // busca um livro a mais para saber se existe proxima pagina sem precisar do count
+        query.with(sort).limit(request.getSize() + 1);
+
+        var livros = mongoTemplate.find(query, Livro.class);
+        if (livros.size() <= request.getSize()) {
+            return new CursorPage<>(livros, request.getSize(), null);
+        }
+
+        var content = livros.subList(0, request.getSize());
+        var last = content.get(content.size() - 1);
+        var value = orderById ? null : mongoTemplate.getConverter().convertToMongoType(entity.getPropertyAccessor(last).getProperty(property));
+        var next = new KeysetCursor(request.getOrderBy(), direction, value, last.getId()).encode();
+
+        return new CursorPage<>(new ArrayList<>(content), request.getSize(), next);
+    }
+
+    @Override
+    public Slice<Livro> findSlice(Criteria filter, Pageable pageable) {
+        var query = new Query();
+        if (filter != null) {
+            query.addCriteria(filter);
+        }
+        query.with(pageable);
+        if (pageable.isPaged()) {
+            query.limit(pageable.getPageSize() + 1);
+        }
+
+        var livros = mongoTemplate.find(query, Livro.class);
+        var hasNext = pageable.isPaged() && livros.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? new ArrayList<>(livros.subList(0, pageable.getPageSize())) : livros, pageable, hasNext);
+    }
+
+    @Override
+    public long estimateCount(Criteria filter) {
+        if (filter == null) {
+            return mongoTemplate.estimatedCount(Livro.class);
+        }
+
+        return countCache.get(hash(filter), key -> mongoTemplate.count(new Query(filter), Livro.class));
+    }
+
+    @Override
+    public LivroFacetsDTO facets(Criteria filter, List<Double> priceBoundaries) {
+        var stages = new ArrayList<AggregationOperation>();
+        if (filter != null) {
+            stages.add(Aggregation.match(filter));
+        }
+        stages.add(Aggregation.facet(Aggregation.sortByCount("genre")).as("genres")
+                .and(Aggregation.bucket("price")
+                        .withBoundaries(priceBoundaries.toArray())
+                        .withDefaultBucket(OTHER_PRICES)
+                        .andOutputCount().as("count")).as("prices")
+                .and(Aggregation.group()
+                        .count().as("total")
+                        .min("price").as("min")
+                        .max("price").as("max")).as("stats"));
+
+        var result = mongoTemplate.aggregate(Aggregation.newAggregation(Livro.class, stages), Document.class).getUniqueMappedResult();
+
+        return toFacets(result, priceBoundaries);
+    }
+
+    // Depois do ultimo id na direcao da ordenacao
+    private Criteria idAfter(String id, Sort.Direction direction) {
+        return direction.isAscending() ? Criteria.where("id").gt(id) : Criteria.where("id").lt(id);
+    }
+
+    // Depois da chave (valor, id). O Mongo ordena nulos/ausentes antes de qualquer valor,
+    // entao eles vem no inicio em ASC e no fim em DESC
+    private Criteria keyAfter(String field, KeysetCursor cursor, Sort.Direction direction) {
+        var value = cursor.getValue();
+        var sameKey = Criteria.where(field).is(value).and("id");
+        sameKey = direction.isAscending() ? sameKey.gt(cursor.getId()) : sameKey.lt(cursor.getId());
+
+        if (value == null) {
+            return direction.isAscending()
+                    ? new Criteria().orOperator(sameKey, Criteria.where(field).ne(null))
+                    : sameKey;
+        }
+        return direction.isAscending()
+                ? new Criteria().orOperator(Criteria.where(field).gt(value), sameKey)
+                : new Criteria().orOperator(Criteria.where(field).lt(value), sameKey, Criteria.where(field).is(null));
+    }
+
+    // Converte o documento do $facet; sortByCount e $bucket devolvem o valor agrupado no _id
+    private LivroFacetsDTO toFacets(Document result, List<Double> priceBoundaries) {
+        var genres = new ArrayList<LivroFacetsDTO.GenreCount>();
+        var prices = new ArrayList<LivroFacetsDTO.PriceBucket>();
+        var facets = LivroFacetsDTO.builder().genres(genres).prices(prices);
+        if (result == null) {
+            return facets.build();
+        }
+
+        for (var genre : result.getList("genres", Document.class, List.of())) {
+            genres.add(new LivroFacetsDTO.GenreCount(genre.getString("_id"), genre.get("count", Number.class).longValue()));
+        }
+        for (var bucket : result.getList("prices", Document.class, List.of())) {
+            var count = bucket.get("count", Number.class).longValue();
+            if (bucket.get("_id") instanceof Number) {
+                var from = ((Number) bucket.get("_id")).doubleValue();
+                var next = priceBoundaries.indexOf(from) + 1;
+                prices.add(new LivroFacetsDTO.PriceBucket(from, next < priceBoundaries.size() ? priceBoundaries.get(next) : null, count));
+            } else {
+                prices.add(new LivroFacetsDTO.PriceBucket(null, null, count));
+            }
+        }
+        var stats = result.getList("stats", Document.class, List.of());
+        if (!stats.isEmpty()) {
+            var total = stats.get(0);
+            facets.total(total.get("total", Number.class).longValue())
+                    .minPrice(toDouble(total.get("min")))
+                    .maxPrice(toDouble(total.get("max")));
+        }
+        return facets.build();
+    }
+
+    private static Double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    // SHA-256 do filtro serializado: o $in de ids da busca por trigramas pode ter milhares de ids e nao fica na chave
+    private static String hash(Criteria filter) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                    .digest(filter.getCriteriaObject().toJson().getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
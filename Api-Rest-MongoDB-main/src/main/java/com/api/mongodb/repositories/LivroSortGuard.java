@@ -0,0 +1,32 @@
+package com.api.mongodb.repositories;
+
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.util.Constants;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// Lista de campos aceitos no orderBy, derivada dos indices declarados no Livro
+@Component
+public class LivroSortGuard {
+
+    private final Set<String> sortableFields;
+
+    public LivroSortGuard(MongoMappingContext mappingContext) {
+        this.sortableFields = Set.copyOf(LivroIndexes.sortableFields(mappingContext));
+    }
+
+    // Retorna o campo quando algum indice o suporta; senao recusa antes de o Mongo ordenar em memoria
+    public String check(String orderBy) {
+        if (!sortableFields.contains(orderBy)) {
+            throw new FieldValidationException("orderBy", Constants.MESSAGE_INVALID_SORT_FIELD + orderBy
+                    + " (use " + String.join(", ", sortableFields) + ")");
+        }
+        return orderBy;
+    }
+
+    public Set<String> getSortableFields() {
+        return sortableFields;
+    }
+}
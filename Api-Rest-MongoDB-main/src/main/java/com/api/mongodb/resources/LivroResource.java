@@ -1,66 +1,230 @@
 package com.api.mongodb.resources;
 
+import com.api.mongodb.cache.LivroETags;
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO;
+import com.api.mongodb.models.dto.LivroBulkResultDTO;
 import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.dto.LivroImportResultDTO;
 import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.models.filters.LivroProjection;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import com.api.mongodb.models.pagination.SlicePage;
+import com.api.mongodb.repositories.LivroSortGuard;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.services.LivroBulkService;
+import com.api.mongodb.services.LivroExportService;
+import com.api.mongodb.services.LivroFacetService;
+import com.api.mongodb.services.LivroImportService;
 import com.api.mongodb.services.LivroService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import javax.validation.groups.Default;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.Supplier;
 
 
 @RestController
 @Api(tags = "Products")
 @RequiredArgsConstructor
 @RequestMapping("/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class LivroResource {
     private final LivroService livroService;
 
+    private final LivroBulkService livroBulkService;
+
+    private final LivroExportService livroExportService;
+
+    private final LivroImportService livroImportService;
+
+    private final LivroFacetService livroFacetService;
+
+    private final LivroSortGuard sortGuard;
+
+    private final LivroETags etags;
+
+    private final LivroResponseCache responseCache;
+
+    private final MongoRouting routing;
+
     @GetMapping
     @ApiOperation("Busca paginada de todos os Livros")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "OK")
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
     })
     public ResponseEntity<Page<LivroDTO>> findAll(@RequestParam(value = "page", defaultValue = "0") Integer page,
                                                   @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
                                                   @RequestParam(value = "direction", defaultValue = "ASC") String direction,
-                                                  @RequestParam(value = "orderBy", defaultValue = "id") String orderBy) {
-        return ResponseEntity.ok().body(livroService.findAll(
-                PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), orderBy))
-        );
+                                                  @RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+                                                  @RequestParam(value = "fields", required = false) String fields, WebRequest request) {
+        var pageable = PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), sortGuard.check(orderBy));
+        var projection = LivroProjection.parse(fields);
+        return collection(request, () -> livroService.findAll(pageable, projection));
+    }
+
+    @GetMapping(params = "paging=cursor")
+    @ApiOperation("Busca paginada por cursor de todos os Livros")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
+    })
+    public ResponseEntity<CursorPage<LivroDTO>> findAllByCursor(@RequestParam(value = "next", required = false) String next,
+                                                                @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
+                                                                @RequestParam(value = "direction", defaultValue = "ASC") String direction,
+                                                                @RequestParam(value = "orderBy", defaultValue = "id") String orderBy, WebRequest request) {
+        var cursor = new CursorRequest(sortGuard.check(orderBy), Sort.Direction.valueOf(direction), linesPerPage, next);
+        return collection(request, () -> livroService.findAllByCursor(cursor));
+    }
+
+    @GetMapping(params = "paging=slice")
+    @ApiOperation("Busca paginada de todos os Livros sem contagem total")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado")
+    })
+    public ResponseEntity<SlicePage<LivroDTO>> findAllSlice(@RequestParam(value = "page", defaultValue = "0") Integer page,
+                                                            @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
+                                                            @RequestParam(value = "direction", defaultValue = "ASC") String direction,
+                                                            @RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+                                                            @RequestParam(value = "estimate", defaultValue = "false") boolean estimate, WebRequest request) {
+        var pageable = PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), sortGuard.check(orderBy));
+        return collection(request, () -> livroService.findAllSlice(pageable, estimate));
     }
 
     @GetMapping("/search")
     @ApiOperation(value = "Busca paginada de Livros por filtros")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "OK")
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
     })
     public ResponseEntity<Page<LivroDTO>> searchByFilter(@RequestParam(value = "page", defaultValue = "0") Integer page,
                                                          @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
                                                          @RequestParam(value = "direction", defaultValue = "ASC") String direction,
-                                                         @RequestParam(value = "orderBy", defaultValue = "id") String orderBy, LivroFilter filter) {
-        return ResponseEntity.ok().body(livroService.searchByFilter(
-                PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), orderBy), filter)
-        );
+                                                         @RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+                                                         @RequestParam(value = "fields", required = false) String fields, LivroFilter filter,
+                                                         WebRequest request) {
+        var pageable = PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), sortGuard.check(orderBy));
+        var projection = LivroProjection.parse(fields);
+        return collection(request, () -> livroService.searchByFilter(pageable, filter, projection));
+    }
+
+    @GetMapping(value = "/search", params = "paging=cursor")
+    @ApiOperation(value = "Busca paginada por cursor de Livros por filtros")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
+    })
+    public ResponseEntity<CursorPage<LivroDTO>> searchByCursor(@RequestParam(value = "next", required = false) String next,
+                                                               @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
+                                                               @RequestParam(value = "direction", defaultValue = "ASC") String direction,
+                                                               @RequestParam(value = "orderBy", defaultValue = "id") String orderBy, LivroFilter filter,
+                                                               WebRequest request) {
+        var cursor = new CursorRequest(sortGuard.check(orderBy), Sort.Direction.valueOf(direction), linesPerPage, next);
+        return collection(request, () -> livroService.searchByCursor(cursor, filter));
+    }
+
+    @GetMapping(value = "/search", params = "paging=slice")
+    @ApiOperation(value = "Busca paginada de Livros por filtros sem contagem total")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado")
+    })
+    public ResponseEntity<SlicePage<LivroDTO>> searchSlice(@RequestParam(value = "page", defaultValue = "0") Integer page,
+                                                           @RequestParam(value = "linesPerPage", defaultValue = "24") Integer linesPerPage,
+                                                           @RequestParam(value = "direction", defaultValue = "ASC") String direction,
+                                                           @RequestParam(value = "orderBy", defaultValue = "id") String orderBy,
+                                                           @RequestParam(value = "estimate", defaultValue = "false") boolean estimate, LivroFilter filter,
+                                                           WebRequest request) {
+        var pageable = PageRequest.of(page, linesPerPage, Sort.Direction.valueOf(direction), sortGuard.check(orderBy));
+        return collection(request, () -> livroService.searchSlice(pageable, filter, estimate));
+    }
+
+    @GetMapping("/facets")
+    @ApiOperation("Contagem por genero, faixas de preco e preco minimo/maximo dos Livros do filtro")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
+    })
+    public ResponseEntity<LivroFacetsDTO> facets(LivroFilter filter, WebRequest request) {
+        return collection(request, () -> livroFacetService.facets(filter));
+    }
+
+    @GetMapping("/export")
+    @ApiOperation(value = "Exportação em streaming (NDJSON ou CSV) dos Livros, com os mesmos filtros da busca")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
+    })
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format, LivroFilter filter) {
+        var exportFormat = LivroExportService.Format.of(format);
+        // o corpo e escrito em outra thread, que nao ve a fixacao no primario feita pelo ReadYourWritesFilter
+        var pinned = routing.isPinned();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + exportFormat.getExtension()).build().toString())
+                .body(output -> livroExportService.export(filter, exportFormat, output, pinned));
     }
 
     @GetMapping("/{id}")
-    @ApiOperation(value = "Busca um Livro por id")
+    @ApiOperation(value = "Busca um Livro por id", response = LivroDTO.class)
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 304, message = "Não modificado"),
+            @ApiResponse(code = 400, message = "Requisição Inválida"),
             @ApiResponse(code = 404, message = "Não encontrado")
     })
-    public ResponseEntity<LivroDTO> findById(@PathVariable String id) {
-        return ResponseEntity.ok().body(livroService.findById(id));
+    public ResponseEntity<?> findById(@PathVariable String id,
+                                      @RequestParam(value = "fields", required = false) String fields, WebRequest request) {
+        var projection = LivroProjection.parse(fields);
+        // a ETag sai da version/updatedAt do livro; o 304 e respondido antes de ler o documento inteiro
+        var variant = etags.variant(request.getHeader(HttpHeaders.ACCEPT));
+        String etag = null;
+        if (etags.isEnabled()) {
+            var version = livroService.findVersion(id);
+            if (version.isPresent()) {
+                etag = etags.of(version.get()) + variant;
+                if (request.checkNotModified(etag, etags.lastModified(version.get()))) {
+                    return notModified();
+                }
+            }
+        }
+        // o livro inteiro em JSON sai do cache de respostas ja codificadas, sem mapper e sem Jackson
+        if (projection.isEmpty() && responseCache.isEnabled() && variant.isEmpty()) {
+            return encoded(request, responseCache.get(id, etag, livroService::findById));
+        }
+        return ok(livroService.findById(id, projection));
     }
 
     @PostMapping
@@ -69,22 +233,65 @@ public class LivroResource {
             @ApiResponse(code = 201, message = "Criado com sucesso"),
             @ApiResponse(code = 400, message = "Requisição Inválida")
     })
-    public ResponseEntity<LivroDTO> create(@Valid @RequestBody LivroDTO livroDTO) {
+    public ResponseEntity<LivroDTO> create(@Validated({Default.class, LivroDTO.Complete.class}) @RequestBody LivroDTO livroDTO) {
         return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentRequest()
                 .buildAndExpand(livroDTO.getId()).toUri()).body(livroService.create(livroDTO));
     }
 
+    @PostMapping("/bulk")
+    @ApiOperation(value = "Criação, substituição e exclusão de Livros em lote")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK, com o resultado de cada operação"),
+            @ApiResponse(code = 400, message = "Requisição Inválida")
+    })
+    public ResponseEntity<List<LivroBulkResultDTO>> bulk(@RequestBody List<LivroBulkOperationDTO> operations) {
+        return ResponseEntity.ok().body(livroBulkService.execute(operations));
+    }
+
+    @PostMapping("/import")
+    @ApiOperation(value = "Importação em streaming de Livros em NDJSON (um Livro por linha)")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK, com o resumo das linhas inseridas, rejeitadas e com falha"),
+            @ApiResponse(code = 429, message = "Importações simultâneas no limite")
+    })
+    public ResponseEntity<LivroImportResultDTO> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok().body(livroImportService.importNdjson(body));
+    }
+
     @PutMapping("/{id}")
     @ApiOperation(value = "Edição de um Livro por id")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "OK"),
             @ApiResponse(code = 400, message = "Requisição Inválida"),
-            @ApiResponse(code = 404, message = "Não encontrado")
+            @ApiResponse(code = 404, message = "Não encontrado"),
+            @ApiResponse(code = 409, message = "Conflito de versão")
     })
-    public ResponseEntity<LivroDTO> update(@Valid @RequestBody LivroDTO livroDTO, @PathVariable String id) {
+    public ResponseEntity<LivroDTO> update(@Validated({Default.class, LivroDTO.Complete.class}) @RequestBody LivroDTO livroDTO, @PathVariable String id) {
         return ResponseEntity.ok().body(livroService.update(id, livroDTO));
     }
 
+    @PatchMapping("/{id}")
+    @ApiOperation(value = "Edição parcial de um Livro por id (apenas os campos enviados)")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 400, message = "Requisição Inválida"),
+            @ApiResponse(code = 404, message = "Não encontrado"),
+            @ApiResponse(code = 409, message = "Conflito de versão")
+    })
+    public ResponseEntity<LivroDTO> patch(@Valid @RequestBody LivroDTO livroDTO, @PathVariable String id) {
+        return ResponseEntity.ok().body(livroService.patch(id, livroDTO));
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    @ApiOperation(value = "Verifica se existe um Livro com o id, sem corpo na resposta")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "OK"),
+            @ApiResponse(code = 404, message = "Não encontrado")
+    })
+    public ResponseEntity<Void> exists(@PathVariable String id) {
+        return livroService.exists(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+    }
+
     @DeleteMapping("/{id}")
     @ApiOperation(value = "Exclusão de um Livro por id")
     @ApiResponses(value = {
@@ -95,4 +302,59 @@ public class LivroResource {
         livroService.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    //GET condicional das listagens e buscas: com o If-None-Match ainda valido responde 304 sem consultar nem serializar;
+    //senao consulta e manda a ETag atual. A ETag tem o formato negociado (JSON, CBOR, Smile ou MessagePack)
+    private <T> ResponseEntity<T> collection(WebRequest request, Supplier<T> body) {
+        if (etags.isEnabled()
+                && request.checkNotModified(etags.collection() + etags.variant(request.getHeader(HttpHeaders.ACCEPT)))) {
+            return notModified();
+        }
+        return ok(body.get());
+    }
+
+    //no-cache: o cliente e a CDN podem guardar a resposta, mas revalidam pela ETag antes de usar.
+    //Vary: Accept porque o corpo depende do formato negociado
+    private <T> ResponseEntity<T> ok(T body) {
+        var response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        if (etags.isEnabled()) {
+            response.cacheControl(CacheControl.noCache());
+        }
+        return response.body(body);
+    }
+
+    //O checkNotModified ja deixou o 304 com a ETag na resposta; aqui so entra o mesmo Vary do 200
+    private static <T> ResponseEntity<T> notModified() {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).varyBy(HttpHeaders.ACCEPT).build();
+    }
+
+    //Resposta ja codificada: o conversor de byte[] escreve os bytes sem serializar de novo
+    private ResponseEntity<byte[]> encoded(WebRequest request, LivroResponseCache.Encoded encoded) {
+        var response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (etags.isEnabled()) {
+            response.cacheControl(CacheControl.noCache());
+        }
+        if (encoded.getGzip() == null) {
+            return response.varyBy(HttpHeaders.ACCEPT).body(encoded.getJson());
+        }
+        response.varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.getGzip());
+        }
+        return response.body(encoded.getJson());
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (var coding : acceptEncoding.split(",")) {
+            var parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
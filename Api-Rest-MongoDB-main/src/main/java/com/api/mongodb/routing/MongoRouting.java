@@ -0,0 +1,120 @@
+package com.api.mongodb.routing;
+
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Roteamento das operacoes do RoutingMongoTemplate (api.routing): as leituras marcadas com secondary vao para os
+// secundarios com maxStaleness e as escritas marcadas com relaxed usam o writeConcern do import.
+// A marcacao vale para a thread atual; fora dela tudo segue a URI (primario e writeConcern padrao)
+@Component
+public class MongoRouting {
+
+    private final boolean enabled;
+
+    private final ReadPreference readPreference;
+
+    private final WriteConcern importWriteConcern;
+
+    // Requisicao de um cliente que escreveu ha pouco (ReadYourWritesFilter): as leituras dele ficam no primario
+    private final ThreadLocal<Boolean> pinned = new ThreadLocal<>();
+
+    private final ThreadLocal<ReadPreference> currentReadPreference = new ThreadLocal<>();
+
+    private final ThreadLocal<WriteConcern> currentWriteConcern = new ThreadLocal<>();
+
+    public MongoRouting(RoutingPropertiesConfig properties) {
+        this.enabled = properties.isEnabled();
+        this.readPreference = readPreference(properties);
+        this.importWriteConcern = writeConcern(properties.getImportWriteConcern());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isPinned() {
+        return enabled && Boolean.TRUE.equals(pinned.get());
+    }
+
+    // Executa a leitura nos secundarios, a nao ser que o roteamento esteja desligado ou o cliente tenha escrito ha pouco
+    public <T> T secondary(Supplier<T> read) {
+        return secondary(isPinned(), read);
+    }
+
+    // Mesma coisa com o pinned lido antes na thread da requisicao, para leituras que rodam em outra thread (exportacao)
+    public <T> T secondary(boolean pinned, Supplier<T> read) {
+        if (!enabled || pinned) {
+            return read.get();
+        }
+        var previous = currentReadPreference.get();
+        currentReadPreference.set(readPreference);
+        try {
+            return read.get();
+        } finally {
+            restore(currentReadPreference, previous);
+        }
+    }
+
+    // Executa a escrita com o writeConcern do import
+    public <T> T relaxed(Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        var previous = currentWriteConcern.get();
+        currentWriteConcern.set(importWriteConcern);
+        try {
+            return write.get();
+        } finally {
+            restore(currentWriteConcern, previous);
+        }
+    }
+
+    // Nulo fora de secondary: a colecao fica com a readPreference da URI
+    public ReadPreference currentReadPreference() {
+        return currentReadPreference.get();
+    }
+
+    // Nulo fora de relaxed: a colecao fica com o writeConcern da URI
+    public WriteConcern currentWriteConcern() {
+        return currentWriteConcern.get();
+    }
+
+    void pin(boolean value) {
+        if (value) {
+            pinned.set(true);
+        } else {
+            pinned.remove();
+        }
+    }
+
+    private static <T> void restore(ThreadLocal<T> local, T previous) {
+        if (previous == null) {
+            local.remove();
+        } else {
+            local.set(previous);
+        }
+    }
+
+    // O primario nao aceita maxStaleness; nos outros modos ele so entra quando configurado
+    private static ReadPreference readPreference(RoutingPropertiesConfig properties) {
+        var maxStaleness = properties.getMaxStaleness();
+        if (maxStaleness.isZero() || ReadPreference.primary().getName().equalsIgnoreCase(properties.getReadPreference())) {
+            return ReadPreference.valueOf(properties.getReadPreference());
+        }
+        return ReadPreference.valueOf(properties.getReadPreference(), List.of(), maxStaleness.getSeconds(), TimeUnit.SECONDS);
+    }
+
+    private static WriteConcern writeConcern(String name) {
+        var writeConcern = WriteConcern.valueOf(name);
+        if (writeConcern == null) {
+            throw new IllegalArgumentException("WriteConcern desconhecido em api.routing.import-write-concern: " + name);
+        }
+        return writeConcern;
+    }
+}
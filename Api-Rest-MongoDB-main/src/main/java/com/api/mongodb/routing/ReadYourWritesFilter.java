@@ -0,0 +1,84 @@
+package com.api.mongodb.routing;
+
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Le-o-que-escreveu com as leituras nos secundarios: toda escrita devolve um cookie com o instante ate o qual o cliente
+// le do primario (agora + readYourWrites) e as requisicoes com o cookie ainda valido ficam fixadas no primario.
+// O cookie sai antes da escrita rodar, entao uma escrita que falha tambem fixa o cliente pela janela
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final RoutingPropertiesConfig properties;
+
+    private final MongoRouting routing;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !routing.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        var now = System.currentTimeMillis();
+        var pinned = pinnedUntil(request) > now;
+        if (isWrite(request)) {
+            response.addCookie(cookie(request, now));
+            pinned = true;
+        }
+
+        routing.pin(pinned);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            routing.pin(false);
+        }
+    }
+
+    private Cookie cookie(HttpServletRequest request, long now) {
+        var window = properties.getReadYourWrites();
+        var cookie = new Cookie(properties.getCookieName(), String.valueOf(now + window.toMillis()));
+        cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+        cookie.setPath(StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/");
+        cookie.setHttpOnly(true);
+        return cookie;
+    }
+
+    // Zero sem cookie ou com valor invalido
+    private long pinnedUntil(HttpServletRequest request) {
+        var cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (var cookie : cookies) {
+            if (properties.getCookieName().equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        var method = HttpMethod.resolve(request.getMethod());
+        return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH || method == HttpMethod.DELETE;
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.mongodb.routing;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+// MongoTemplate que aplica na colecao de cada operacao a readPreference e o writeConcern marcados no MongoRouting.
+// Como o LivroRepository e o LivroRepositoryImpl usam este template, as consultas deles seguem o roteamento sem mudar
+public class RoutingMongoTemplate extends MongoTemplate {
+
+    private final MongoRouting routing;
+
+    public RoutingMongoTemplate(MongoDatabaseFactory mongoDbFactory, MongoConverter mongoConverter, MongoRouting routing) {
+        super(mongoDbFactory, mongoConverter);
+        this.routing = routing;
+    }
+
+    // find, count, aggregate, stream e bulkWrite passam por aqui antes de ir ao driver
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        var prepared = super.prepareCollection(collection);
+        var readPreference = routing.currentReadPreference();
+        if (readPreference != null) {
+            prepared = prepared.withReadPreference(readPreference);
+        }
+        var writeConcern = routing.currentWriteConcern();
+        if (writeConcern != null) {
+            prepared = prepared.withWriteConcern(writeConcern);
+        }
+        return prepared;
+    }
+}
@@ -0,0 +1,172 @@
+package com.api.mongodb.search;
+
+import com.api.mongodb.configuration.SearchPropertiesConfig;
+import com.api.mongodb.configuration.SearchPropertiesConfig.SearchEngine;
+import com.api.mongodb.models.Livro;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Indice de trigramas de name, description e genre da colecao products, para o motor de busca TRIGRAM.
+// Construido na subida e reconstruido a cada api.search.trigram-rebuild-interval; as escritas desta instancia entram na hora.
+// Metrica: livro.trigram.size (livros no indice)
+@Slf4j
+@Component
+public class LivroTrigramIndex implements DisposableBean {
+
+    // Campos indexados, nesta ordem
+    private static final int FIELDS = 3;
+
+    // Query sem metacaracteres de regex: so assim a regex e um trecho literal que os trigramas conseguem resolver
+    private static final Pattern LITERAL = Pattern.compile("[^\\\\^$.|?*+()\\[\\]{}]*");
+
+    private final SearchPropertiesConfig properties;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Protege a troca do indice e a fila de escritas feitas durante uma reconstrucao
+    private final Object writes = new Object();
+
+    // Uma reconstrucao por vez (a agendada e a chamada direta do benchmark)
+    private final Object rebuilding = new Object();
+
+    private volatile TrigramIndex current;
+
+    // Escritas recebidas enquanto o indice novo e lido do Mongo; reaplicadas nele antes da troca
+    private List<Consumer<TrigramIndex>> pending;
+
+    private ScheduledExecutorService rebuilder;
+
+    public LivroTrigramIndex(SearchPropertiesConfig properties, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+
+        Gauge.builder("livro.trigram.size", this, LivroTrigramIndex::size)
+                .description("Livros no indice de trigramas da busca")
+                .register(meterRegistry);
+    }
+
+    // Constroi o indice numa thread propria, sem segurar a subida; ate ficar pronto a busca usa so a regex
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (properties.getEngine() != SearchEngine.TRIGRAM || rebuilder != null) {
+            return;
+        }
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "livro-trigram");
+            thread.setDaemon(true);
+            return thread;
+        });
+        var interval = properties.getTrigramRebuildInterval();
+        if (interval.isZero() || interval.isNegative()) {
+            rebuilder.execute(this::rebuildQuietly);
+        } else {
+            rebuilder.scheduleWithFixedDelay(this::rebuildQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    // Ids dos livros que podem casar com a query; vazio quando o indice nao responde (nao pronto, query com regex,
+    // menos de 3 caracteres ou candidatos demais) e a busca deve seguir so pela regex
+    public Optional<List<String>> candidates(String query) {
+        var index = current;
+        if (index == null || query == null || !LITERAL.matcher(query).matches()) {
+            return Optional.empty();
+        }
+        return index.candidates(query, properties.getTrigramMaxCandidates());
+    }
+
+    public void index(Livro livro) {
+        var id = livro.getId();
+        var name = livro.getName();
+        var description = livro.getDescription();
+        var genre = livro.getGenre();
+        if (id != null) {
+            apply(index -> index.put(id, name, description, genre));
+        }
+    }
+
+    public void remove(String id) {
+        apply(index -> index.remove(id));
+    }
+
+    // Le os tres campos de todos os livros num indice novo e troca pelo atual, descartando as entradas antigas
+    public void rebuild() {
+        synchronized (rebuilding) {
+            var startedAt = System.currentTimeMillis();
+            var next = new TrigramIndex(FIELDS);
+            synchronized (writes) {
+                pending = new ArrayList<>();
+            }
+            try {
+                var query = new Query();
+                query.fields().include("name").include("description").include("genre");
+                try (var livros = mongoTemplate.stream(query, Livro.class)) {
+                    livros.forEachRemaining(livro ->
+                            next.put(livro.getId(), livro.getName(), livro.getDescription(), livro.getGenre()));
+                }
+            } catch (RuntimeException e) {
+                synchronized (writes) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (writes) {
+                pending.forEach(write -> write.accept(next));
+                pending = null;
+                current = next;
+            }
+            log.info("Indice de trigramas dos livros construido: {} livros em {} ms",
+                    next.size(), System.currentTimeMillis() - startedAt);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao construir o indice de trigramas dos livros; a busca segue pela regex", e);
+        }
+    }
+
+    private void apply(Consumer<TrigramIndex> write) {
+        synchronized (writes) {
+            if (current != null) {
+                write.accept(current);
+            }
+            if (pending != null) {
+                pending.add(write);
+            }
+        }
+    }
+
+    private double size() {
+        var index = current;
+        return index == null ? Double.NaN : index.size();
+    }
+}
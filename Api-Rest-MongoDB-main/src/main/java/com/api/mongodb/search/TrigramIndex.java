@@ -0,0 +1,272 @@
+package com.api.mongodb.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Indice invertido de trigramas para busca de trechos sem diferenciar maiusculas. Cada campo de cada documento
+// e quebrado nos seus trigramas; a lista de cada trigrama e um int[] crescente de docIds.
+// Um trecho de 3 ou mais caracteres so aparece num campo que tem todos os trigramas dele, entao a intersecao das listas
+// devolve um superconjunto dos documentos que casam: quem chama confirma os candidatos com a busca original
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    // Abaixo de tantos docIds mortos nao vale compactar
+    private static final int MIN_DEAD = 64;
+
+    private final int fields;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Trigrama (campo nos bits altos e os tres chars de 16 bits) -> docIds que o contem
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // docId -> id do documento; nulo depois de removido ou reindexado
+    private final List<String> ids = new ArrayList<>();
+
+    // id -> docId atual
+    private final Map<String, Integer> docs = new HashMap<>();
+
+    // docIds atuais; os antigos continuam nas listas ate a compactacao e sao ignorados na busca
+    private final BitSet live = new BitSet();
+
+    public TrigramIndex(int fields) {
+        this.fields = fields;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // docIds ja usados, vivos e mortos; volta para o size() a cada compactacao
+    public int allocated() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Indexa o documento com um valor por campo (nulo nao entra); um id ja indexado e substituido
+    public void put(String id, String... values) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfNeeded();
+            var doc = ids.size();
+            ids.add(id);
+            docs.put(id, doc);
+            live.set(doc);
+            for (int field = 0; field < Math.min(fields, values.length); field++) {
+                if (values[field] == null) {
+                    continue;
+                }
+                var text = fold(values[field]);
+                for (int i = 0; i + GRAM <= text.length; i++) {
+                    postings.computeIfAbsent(key(field, text, i), key -> new Postings()).add(doc);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids dos documentos com algum campo que tem todos os trigramas do trecho. Vazio quando o indice nao responde:
+    // trecho com menos de 3 caracteres ou mais candidatos que o limite
+    public Optional<List<String>> candidates(String fragment, int max) {
+        var text = fold(fragment);
+        if (text.length < GRAM) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            var matched = new BitSet();
+            for (int field = 0; field < fields; field++) {
+                var lists = lists(field, text);
+                if (lists == null) {
+                    continue;
+                }
+                var candidates = intersect(lists);
+                for (int i = 0; i < candidates.size; i++) {
+                    if (live.get(candidates.docs[i])) {
+                        matched.set(candidates.docs[i]);
+                    }
+                }
+            }
+            if (matched.cardinality() > max) {
+                return Optional.empty();
+            }
+            var result = new ArrayList<String>(matched.cardinality());
+            for (int doc = matched.nextSetBit(0); doc >= 0; doc = matched.nextSetBit(doc + 1)) {
+                result.add(ids.get(doc));
+            }
+            return Optional.of(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String id) {
+        var doc = docs.remove(id);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        ids.set(doc, null);
+        return true;
+    }
+
+    // Reindexar ou remover deixa o docId antigo nas listas. Quando os mortos passam dos vivos, renumera os vivos em
+    // ordem e reescreve as listas sem os mortos, para o indice nao crescer sem limite entre as reconstrucoes
+    private void compactIfNeeded() {
+        var dead = ids.size() - docs.size();
+        if (dead < MIN_DEAD || dead <= docs.size()) {
+            return;
+        }
+
+        var renumbered = new int[ids.size()];
+        var next = 0;
+        for (int doc = 0; doc < ids.size(); doc++) {
+            renumbered[doc] = live.get(doc) ? next++ : -1;
+        }
+
+        var entries = postings.values().iterator();
+        while (entries.hasNext()) {
+            var list = entries.next();
+            var size = 0;
+            for (int i = 0; i < list.size; i++) {
+                var doc = renumbered[list.docs[i]];
+                if (doc >= 0) {
+                    list.docs[size++] = doc;
+                }
+            }
+            if (size == 0) {
+                entries.remove();
+            } else {
+                list.size = size;
+                list.docs = Arrays.copyOf(list.docs, size);
+            }
+        }
+
+        var compacted = new ArrayList<String>(docs.size());
+        for (int doc = 0; doc < ids.size(); doc++) {
+            if (renumbered[doc] >= 0) {
+                compacted.add(ids.get(doc));
+                docs.put(ids.get(doc), renumbered[doc]);
+            }
+        }
+        ids.clear();
+        ids.addAll(compacted);
+        live.clear();
+        live.set(0, ids.size());
+    }
+
+    // Listas dos trigramas distintos do trecho no campo, da menor para a maior; nulo quando algum trigrama nao existe
+    private Postings[] lists(int field, char[] text) {
+        var lists = new ArrayList<Postings>(text.length - GRAM + 1);
+        for (int i = 0; i + GRAM <= text.length; i++) {
+            var list = postings.get(key(field, text, i));
+            if (list == null) {
+                return null;
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        return lists.toArray(new Postings[0]);
+    }
+
+    // Intersecao comecando pela menor lista; com listas muito desiguais procura cada candidato por busca binaria
+    private static Postings intersect(Postings[] lists) {
+        var result = lists[0];
+        for (int l = 1; l < lists.length && result.size > 0; l++) {
+            var other = lists[l];
+            var next = new Postings(result.size);
+            if (other.size / 8 > result.size) {
+                for (int i = 0; i < result.size; i++) {
+                    if (Arrays.binarySearch(other.docs, 0, other.size, result.docs[i]) >= 0) {
+                        next.add(result.docs[i]);
+                    }
+                }
+            } else {
+                for (int i = 0, j = 0; i < result.size && j < other.size; ) {
+                    if (result.docs[i] < other.docs[j]) {
+                        i++;
+                    } else if (result.docs[i] > other.docs[j]) {
+                        j++;
+                    } else {
+                        next.add(result.docs[i]);
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    private static long key(int field, char[] text, int at) {
+        return (long) field << 48 | (long) text[at] << 32 | (long) text[at + 1] << 16 | text[at + 2];
+    }
+
+    // Mesma dobra de maiusculas da regex com a opcao "i": maiuscula e depois minuscula, char a char
+    private static char[] fold(String value) {
+        var text = value.toCharArray();
+        for (int i = 0; i < text.length; i++) {
+            text[i] = Character.toLowerCase(Character.toUpperCase(text[i]));
+        }
+        return text;
+    }
+
+    // Lista de docIds crescente num int[] que dobra de tamanho quando enche
+    private static final class Postings {
+
+        private int[] docs;
+
+        private int size;
+
+        private Postings() {
+            this(4);
+        }
+
+        private Postings(int capacity) {
+            docs = new int[Math.max(1, capacity)];
+        }
+
+        // docIds chegam em ordem crescente; o mesmo trigrama repetido no campo entra uma vez so
+        private void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
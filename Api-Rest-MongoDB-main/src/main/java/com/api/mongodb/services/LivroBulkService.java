@@ -0,0 +1,249 @@
+package com.api.mongodb.services;
+
+import com.api.mongodb.cache.LivroCache;
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.BulkPropertiesConfig;
+import com.api.mongodb.exceptions.DataIntegrityException;
+import com.api.mongodb.mappers.LivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO.Operation;
+import com.api.mongodb.models.dto.LivroBulkResultDTO;
+import com.api.mongodb.models.dto.LivroBulkResultDTO.Status;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.search.LivroTrigramIndex;
+import com.api.mongodb.util.Constants;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LivroBulkService {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LivroMapper mapper;
+
+    private final Validator validator;
+
+    private final BulkPropertiesConfig properties;
+
+    private final LivroCache livroCache;
+
+    private final LivroResponseCache responseCache;
+
+    private final WriteGeneration writeGeneration;
+
+    private final LivroTrigramIndex trigramIndex;
+
+    //Executa as operacoes em lotes de batchSize, cada lote num unico bulkWrite nao ordenado. Retorna um resultado por operacao
+    public List<LivroBulkResultDTO> execute(List<LivroBulkOperationDTO> operations) {
+        if (operations.size() > properties.getMaxOperations()) {
+            throw new DataIntegrityException(Constants.MESSAGE_BULK_TOO_LARGE + properties.getMaxOperations());
+        }
+
+        var results = new ArrayList<LivroBulkResultDTO>(operations.size());
+        for (int start = 0; start < operations.size(); start += properties.getBatchSize()) {
+            var end = Math.min(start + properties.getBatchSize(), operations.size());
+            results.addAll(executeBatch(operations.subList(start, end), start));
+        }
+        return results;
+    }
+
+    private List<LivroBulkResultDTO> executeBatch(List<LivroBulkOperationDTO> batch, int offset) {
+        var results = new ArrayList<LivroBulkResultDTO>(batch.size());
+        var existing = existingIds(batch);
+        var now = LocalDateTime.now();
+
+        var bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Livro.class);
+        // posicao de cada operacao enviada ao Mongo -> posicao do resultado, para traduzir os erros do bulkWrite
+        var sent = new ArrayList<Integer>(batch.size());
+        var touched = new ArrayList<String>();
+        // livro gravado por operacao enviada (nulo na exclusao), para o indice de trigramas depois do bulkWrite
+        var written = new ArrayList<Livro>(batch.size());
+        // posicao do resultado de cada REPLACE enviado, para achar os que perderam a corrida com outra escrita
+        var replaced = new ArrayList<Integer>();
+
+        for (int i = 0; i < batch.size(); i++) {
+            var item = batch.get(i);
+            var result = LivroBulkResultDTO.builder().index(offset + i).operation(item.getOperation()).build();
+            results.add(result);
+
+            var invalid = validate(item);
+            if (invalid != null) {
+                result.setStatus(Status.INVALID);
+                result.setMessage(invalid);
+                continue;
+            }
+
+            var livroDTO = item.getLivro();
+            result.setId(livroDTO.getId());
+
+            if (item.getOperation() == Operation.INSERT) {
+                // mesmo preenchimento do LivroService.create: id e version do cliente sao descartados. O id e gerado aqui
+                // para voltar no resultado
+                var livro = mapper.toEntity(livroDTO);
+                livro.setId(new ObjectId().toHexString());
+                livro.setVersion(null);
+                livro.setCreatedAt(now);
+                bulk.insert(livro);
+                result.setId(livro.getId());
+                result.setStatus(Status.CREATED);
+                written.add(livro);
+            } else if (!existing.containsKey(livroDTO.getId())) {
+                result.setStatus(Status.NOT_FOUND);
+                result.setMessage(Constants.MESSAGE_NOT_FOUND);
+                continue;
+            } else if (item.getOperation() == Operation.REPLACE && livroDTO.getVersion() != null
+                    && !livroDTO.getVersion().equals(existing.get(livroDTO.getId()))) {
+                result.setStatus(Status.CONFLICT);
+                result.setMessage(Constants.MESSAGE_VERSION_CONFLICT);
+                continue;
+            } else if (item.getOperation() == Operation.REPLACE) {
+                // mesmos campos do LivroService.update, com updatedAt e sem mexer no createdAt; com version, so substitui
+                // se ninguem escreveu desde a leitura, como o LivroService.modify
+                bulk.updateOne(byIdAndVersion(livroDTO.getId(), livroDTO.getVersion()), new Update()
+                        .set("name", livroDTO.getName())
+                        .set("description", livroDTO.getDescription())
+                        .set("price", livroDTO.getPrice())
+                        .set("genre", livroDTO.getGenre())
+                        .set("updatedAt", now)
+                        .inc("version", 1));
+                result.setStatus(Status.UPDATED);
+                replaced.add(i);
+                touched.add(livroDTO.getId());
+                written.add(Livro.builder().id(livroDTO.getId()).name(livroDTO.getName())
+                        .description(livroDTO.getDescription()).genre(livroDTO.getGenre()).build());
+            } else {
+                bulk.remove(byId(livroDTO.getId()));
+                result.setStatus(Status.DELETED);
+                touched.add(livroDTO.getId());
+                written.add(null);
+            }
+            sent.add(i);
+        }
+
+        if (!sent.isEmpty()) {
+            try {
+                var outcome = bulk.execute();
+                if (outcome != null && outcome.getMatchedCount() < replaced.size()) {
+                    conflicts(results, replaced, now);
+                }
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    var result = results.get(sent.get(error.getIndex()));
+                    result.setStatus(Status.FAILED);
+                    result.setMessage(error.getMessage());
+                }
+            } finally {
+                touched.forEach(livroCache::invalidate);
+                touched.forEach(responseCache::invalidate);
+                reindex(results, sent, written);
+                writeGeneration.bump();
+            }
+        }
+        return results;
+    }
+
+    //Leva ao indice de trigramas as operacoes que o Mongo aceitou
+    private void reindex(List<LivroBulkResultDTO> results, List<Integer> sent, List<Livro> written) {
+        for (int i = 0; i < sent.size(); i++) {
+            var result = results.get(sent.get(i));
+            if (result.getStatus() == Status.FAILED || result.getStatus() == Status.CONFLICT) {
+                continue;
+            }
+            if (written.get(i) == null) {
+                trigramIndex.remove(result.getId());
+            } else {
+                trigramIndex.index(written.get(i));
+            }
+        }
+    }
+
+    //Marca como CONFLICT os REPLACE cujo filtro nao casou: o documento mudou (ou sumiu) entre a leitura e o bulkWrite
+    private void conflicts(List<LivroBulkResultDTO> results, List<Integer> replaced, LocalDateTime now) {
+        var ids = replaced.stream().map(i -> results.get(i).getId()).collect(Collectors.toList());
+        var query = new Query(Criteria.where("id").in(ids).and("updatedAt").is(now));
+        query.fields().include("id");
+
+        var applied = mongoTemplate.find(query, Livro.class).stream().map(Livro::getId).collect(Collectors.toSet());
+        for (Integer i : replaced) {
+            var result = results.get(i);
+            if (!applied.contains(result.getId())) {
+                result.setStatus(Status.CONFLICT);
+                result.setMessage(Constants.MESSAGE_VERSION_CONFLICT);
+            }
+        }
+    }
+
+    //Busca numa so consulta (so o _id e a version) quais livros do lote existem, para REPLACE e DELETE
+    private Map<String, Long> existingIds(List<LivroBulkOperationDTO> batch) {
+        var ids = batch.stream()
+                .filter(item -> item.getOperation() != null && item.getOperation() != Operation.INSERT)
+                .filter(item -> item.getLivro() != null && item.getLivro().getId() != null)
+                .map(item -> item.getLivro().getId())
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        var query = new Query(Criteria.where("id").in(ids));
+        query.fields().include("id", "version");
+
+        var existing = new HashMap<String, Long>();
+        for (Livro livro : mongoTemplate.find(query, Livro.class)) {
+            existing.put(livro.getId(), livro.getVersion());
+        }
+        return existing;
+    }
+
+    //Retorna a mensagem do problema ou nulo quando a operacao e valida
+    private String validate(LivroBulkOperationDTO item) {
+        if (item.getOperation() == null || item.getLivro() == null) {
+            return Constants.MESSAGE_BULK_INVALID_OPERATION;
+        }
+        if (item.getOperation() != Operation.INSERT && item.getLivro().getId() == null) {
+            return Constants.MESSAGE_BULK_ID_REQUIRED;
+        }
+        // INSERT e REPLACE gravam o livro inteiro e validam como o POST e o PUT; DELETE so precisa do id
+        var violations = item.getOperation() == Operation.DELETE
+                ? validator.validate(item.getLivro(), Default.class)
+                : validator.validate(item.getLivro(), Default.class, LivroDTO.Complete.class);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("id").is(id));
+    }
+
+    private static Query byIdAndVersion(String id, Long version) {
+        var criteria = Criteria.where("id").is(id);
+        if (version != null) {
+            criteria.and("version").is(version);
+        }
+        return new Query(criteria);
+    }
+}
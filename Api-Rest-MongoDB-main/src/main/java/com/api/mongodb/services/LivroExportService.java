@@ -0,0 +1,141 @@
+package com.api.mongodb.services;
+
+import com.api.mongodb.configuration.ExportPropertiesConfig;
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.mappers.LivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroCriteria;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.util.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class LivroExportService {
+
+    private static final String CSV_HEADER = "id,name,description,price,createdAt,updatedAt,genre";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LivroMapper mapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final ExportPropertiesConfig properties;
+
+    //Roteamento do cursor para os secundarios (api.routing)
+    private final MongoRouting routing;
+
+    //Escreve os livros do filtro direto do cursor do Mongo para a saida, um por linha, sem montar paginas em memoria
+    public void export(LivroFilter filter, Format format, OutputStream output) throws IOException {
+        export(filter, format, output, routing.isPinned());
+    }
+
+    //Mesma exportacao com o pinned lido na thread da requisicao: o StreamingResponseBody escreve em outra thread.
+    //O cursor abre no secundario (ou no primario, com pinned) e os getMore seguem no mesmo servidor
+    public void export(LivroFilter filter, Format format, OutputStream output, boolean pinned) throws IOException {
+        var query = query(filter);
+        query.cursorBatchSize(properties.getCursorBatchSize());
+
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (CloseableIterator<Livro> livros = routing.secondary(pinned, () -> mongoTemplate.stream(query, Livro.class))) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            var count = 0;
+            while (livros.hasNext()) {
+                var livroDTO = mapper.toDTO(livros.next());
+                if (format == Format.CSV) {
+                    writeCsv(writer, livroDTO);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(livroDTO));
+                    writer.write('\n');
+                }
+                if (++count % properties.getFlushEvery() == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    //Mesmos filtros da busca; sem nenhum filtro exporta tudo
+    private Query query(LivroFilter filter) {
+        var criteria = LivroCriteria.of(filter);
+        return criteria == null ? new Query() : new Query(criteria);
+    }
+
+    private void writeCsv(Writer writer, LivroDTO livroDTO) throws IOException {
+        writer.write(csv(livroDTO.getId()));
+        writer.write(',');
+        writer.write(csv(livroDTO.getName()));
+        writer.write(',');
+        writer.write(csv(livroDTO.getDescription()));
+        writer.write(',');
+        writer.write(livroDTO.getPrice() == null ? "" : livroDTO.getPrice().toString());
+        writer.write(',');
+        writer.write(livroDTO.getCreatedAt() == null ? "" : livroDTO.getCreatedAt().toString());
+        writer.write(',');
+        writer.write(livroDTO.getUpdatedAt() == null ? "" : livroDTO.getUpdatedAt().toString());
+        writer.write(',');
+        writer.write(csv(livroDTO.getGenre()));
+        writer.write('\n');
+    }
+
+    //Aspas apenas quando o valor tem virgula, aspas ou quebra de linha (RFC 4180)
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public enum Format {
+        NDJSON(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format of(String format) {
+            try {
+                return valueOf(format.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new FieldValidationException("format", Constants.MESSAGE_INVALID_EXPORT_FORMAT + format);
+            }
+        }
+    }
+}
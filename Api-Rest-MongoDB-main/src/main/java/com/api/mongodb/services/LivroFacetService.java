@@ -0,0 +1,51 @@
+package com.api.mongodb.services;
+
+import com.api.mongodb.cache.FacetResultCache;
+import com.api.mongodb.cache.QueryKey;
+import com.api.mongodb.configuration.FacetPropertiesConfig;
+import com.api.mongodb.metrics.LivroQueryMetrics;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroCriteria;
+import com.api.mongodb.repositories.LivroRepository;
+import com.api.mongodb.routing.MongoRouting;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class LivroFacetService {
+
+    private final LivroRepository livroRepository;
+
+    //Limites das faixas de preco
+    private final FacetPropertiesConfig properties;
+
+    //Cache das facetas por filtro, invalidado pela geracao de escrita
+    private final FacetResultCache facetResultCache;
+
+    //Timer das consultas por metodo do repositorio e forma do filtro
+    private final LivroQueryMetrics queryMetrics;
+
+    //Roteamento da agregacao para os secundarios (api.routing)
+    private final MongoRouting routing;
+
+    //Manda os filtros e retorna as facetas dos livros que casam com eles; a query usa os filtros regex, como a busca por cursor.
+    //Quem escreveu ha pouco agrega no primario, sem o cache, como as paginas do LivroService
+    public LivroFacetsDTO facets(LivroFilter filter) {
+
+        if (routing.isPinned()) {
+            return aggregate(filter);
+        }
+        return facetResultCache.get(QueryKey.of("facets", filter, Pageable.unpaged(), Set.of()), () ->
+                routing.secondary(() -> aggregate(filter)));
+    }
+
+    private LivroFacetsDTO aggregate(LivroFilter filter) {
+
+        return queryMetrics.record("facets", filter, () -> livroRepository.facets(LivroCriteria.of(filter), properties.getPriceBoundaries()));
+    }
+}
@@ -0,0 +1,285 @@
+package com.api.mongodb.services;
+
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.ImportPropertiesConfig;
+import com.api.mongodb.exceptions.TooManyRequestsException;
+import com.api.mongodb.mappers.LivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.dto.LivroImportResultDTO;
+import com.api.mongodb.models.dto.LivroImportResultDTO.LineError;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.search.LivroTrigramIndex;
+import com.api.mongodb.util.Constants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class LivroImportService implements DisposableBean {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LivroMapper mapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final ImportPropertiesConfig properties;
+
+    private final WriteGeneration writeGeneration;
+
+    private final LivroTrigramIndex trigramIndex;
+
+    //WriteConcern relaxado dos lotes (api.routing.import-write-concern)
+    private final MongoRouting routing;
+
+    //Importacoes em andamento, no maximo maxConcurrent
+    private final Semaphore imports;
+
+    //Threads de gravacao dos lotes, compartilhadas pelas importacoes; cada uma ocupa no maximo maxInFlight
+    private final ExecutorService executor;
+
+    public LivroImportService(MongoTemplate mongoTemplate, LivroMapper mapper, ObjectMapper objectMapper, Validator validator,
+                              ImportPropertiesConfig properties, WriteGeneration writeGeneration,
+                              LivroTrigramIndex trigramIndex, MongoRouting routing) {
+        this.mongoTemplate = mongoTemplate;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.properties = properties;
+        this.writeGeneration = writeGeneration;
+        this.trigramIndex = trigramIndex;
+        this.routing = routing;
+        this.imports = new Semaphore(properties.getMaxConcurrent());
+
+        var threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(properties.getMaxConcurrent() * properties.getMaxInFlight(), runnable -> {
+            var thread = new Thread(runnable, "livro-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    //Le o corpo NDJSON linha a linha e grava em lotes; no maximo maxInFlight lotes em memoria, o resto espera no socket.
+    //Com maxConcurrent importacoes em andamento a requisicao e recusada, em vez de juntar mais lotes em memoria
+    public LivroImportResultDTO importNdjson(InputStream input) throws IOException {
+        if (!imports.tryAcquire()) {
+            throw new TooManyRequestsException(Constants.MESSAGE_IMPORT_BUSY + properties.getMaxConcurrent());
+        }
+        try {
+            return importLines(input);
+        } finally {
+            imports.release();
+        }
+    }
+
+    private LivroImportResultDTO importLines(InputStream input) throws IOException {
+        var summary = new Summary(properties.getMaxErrors());
+        var inFlight = new Semaphore(properties.getMaxInFlight());
+        var reader = objectMapper.readerFor(LivroDTO.class);
+
+        try (var lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            var batch = new Batch(properties.getBatchSize());
+            var lineNumber = 0L;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                var livro = parse(reader, line, lineNumber, summary);
+                if (livro == null) {
+                    continue;
+                }
+                batch.add(livro, lineNumber);
+                if (batch.isFull()) {
+                    submit(batch, inFlight, summary);
+                    batch = new Batch(properties.getBatchSize());
+                }
+            }
+            if (!batch.isEmpty()) {
+                submit(batch, inFlight, summary);
+            }
+        } finally {
+            // espera os lotes pendentes antes de responder, mesmo se a leitura falhar no meio
+            inFlight.acquireUninterruptibly(properties.getMaxInFlight());
+            if (summary.inserted.get() > 0) {
+                writeGeneration.bump();
+            }
+        }
+        return summary.toDTO();
+    }
+
+    //Retorna o livro pronto para inserir ou nulo quando a linha e rejeitada
+    private Livro parse(ObjectReader reader, String line, long lineNumber, Summary summary) {
+        LivroDTO livroDTO;
+        try {
+            livroDTO = reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            summary.reject(lineNumber, e.getOriginalMessage());
+            return null;
+        }
+
+        // mesmas validacoes do POST: documento completo
+        var violations = validator.validate(livroDTO, Default.class, LivroDTO.Complete.class);
+        if (!violations.isEmpty()) {
+            summary.reject(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+
+        // mesmo preenchimento do LivroService.create: id e version da linha sao descartados.
+        // O id e gerado aqui para o livro entrar no indice de trigramas depois do insert
+        var livro = mapper.toEntity(livroDTO);
+        livro.setId(new ObjectId().toHexString());
+        livro.setVersion(null);
+        livro.setCreatedAt(LocalDateTime.now());
+        return livro;
+    }
+
+    //Bloqueia a thread da requisicao enquanto maxInFlight lotes ainda estao sendo gravados
+    private void submit(Batch batch, Semaphore inFlight, Summary summary) {
+        inFlight.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    write(batch, summary);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void write(Batch batch, Summary summary) {
+        try {
+            routing.relaxed(() -> mongoTemplate.bulkOps(BulkMode.UNORDERED, Livro.class).insert(batch.livros).execute());
+            summary.inserted.addAndGet(batch.livros.size());
+            batch.livros.forEach(trigramIndex::index);
+        } catch (BulkOperationException e) {
+            summary.inserted.addAndGet(e.getResult().getInsertedCount());
+            var failed = new HashSet<Integer>();
+            for (BulkWriteError error : e.getErrors()) {
+                summary.fail(batch.lines.get(error.getIndex()), error.getMessage());
+                failed.add(error.getIndex());
+            }
+            // a linha com id duplicado nao pode substituir no indice o livro que ja existia com esse id
+            for (int i = 0; i < batch.livros.size(); i++) {
+                if (!failed.contains(i)) {
+                    trigramIndex.index(batch.livros.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.lines.forEach(line -> summary.fail(line, e.getMessage()));
+        }
+    }
+
+    private static final class Batch {
+
+        private final List<Livro> livros;
+
+        private final List<Long> lines;
+
+        private final int size;
+
+        private Batch(int size) {
+            this.size = size;
+            this.livros = new ArrayList<>(size);
+            this.lines = new ArrayList<>(size);
+        }
+
+        private void add(Livro livro, long line) {
+            livros.add(livro);
+            lines.add(line);
+        }
+
+        private boolean isFull() {
+            return livros.size() >= size;
+        }
+
+        private boolean isEmpty() {
+            return livros.isEmpty();
+        }
+    }
+
+    private static final class Summary {
+
+        private final AtomicLong inserted = new AtomicLong();
+
+        private final AtomicLong rejected = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private final ConcurrentLinkedQueue<LineError> errors = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger errorSlots;
+
+        private Summary(int maxErrors) {
+            this.errorSlots = new AtomicInteger(maxErrors);
+        }
+
+        private void reject(long line, String message) {
+            rejected.incrementAndGet();
+            error(line, message);
+        }
+
+        private void fail(long line, String message) {
+            failed.incrementAndGet();
+            error(line, message);
+        }
+
+        private void error(long line, String message) {
+            if (errorSlots.getAndDecrement() > 0) {
+                errors.add(new LineError(line, message));
+            }
+        }
+
+        private LivroImportResultDTO toDTO() {
+            var sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+            return LivroImportResultDTO.builder()
+                    .inserted(inserted.get())
+                    .rejected(rejected.get())
+                    .failed(failed.get())
+                    .errors(sorted)
+                    .build();
+        }
+    }
+}
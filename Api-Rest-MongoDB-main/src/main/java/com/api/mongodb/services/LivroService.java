@@ -1,57 +1,179 @@
 package com.api.mongodb.services;
 
 
+import com.api.mongodb.cache.LivroCache;
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.cache.QueryKey;
+import com.api.mongodb.cache.QueryResultCache;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.SearchPropertiesConfig;
+import com.api.mongodb.configuration.SearchPropertiesConfig.SearchEngine;
 import com.api.mongodb.exceptions.ObjectNotFoundException;
+import com.api.mongodb.mappers.LivroMapper;
+import com.api.mongodb.metrics.LivroQueryMetrics;
 import com.api.mongodb.models.Livro;
 import com.api.mongodb.models.dto.LivroDTO;
 import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import com.api.mongodb.models.pagination.SlicePage;
+import com.api.mongodb.replica.LivroReplica;
+import com.api.mongodb.repositories.LivroCriteria;
 import com.api.mongodb.repositories.LivroRepository;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.search.LivroTrigramIndex;
 import com.api.mongodb.util.Constants;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 
 @Service
 @RequiredArgsConstructor
 public class LivroService {
 
-    // Cria o Mapper do modelMapper
-    private final ModelMapper mapper;
+    // Mapper especializado de Livro (ou o ModelMapper, conforme api.mapper.mode)
+    private final LivroMapper mapper;
 
     //Seta o Repositorio para o Service usar
     private final LivroRepository livroRepository;
 
+    //Configuracao do motor de busca por texto (regex ou indice de texto)
+    private final SearchPropertiesConfig searchProperties;
+
+    //Cache de livros por id, invalidado em toda escrita
+    private final LivroCache livroCache;
+
+    //Cache de paginas das listagens e buscas
+    private final QueryResultCache queryResultCache;
+
+    //Geracao de escrita da colecao, incrementada em toda escrita
+    private final WriteGeneration writeGeneration;
+
+    //Timer das consultas por metodo do repositorio e forma do filtro
+    private final LivroQueryMetrics queryMetrics;
+
+    //Copia em memoria da colecao (api.replica.enabled); enquanto nao esta pronta as leituras vao ao Mongo
+    private final LivroReplica replica;
+
+    //Indice de trigramas do motor TRIGRAM, mantido a cada escrita
+    private final LivroTrigramIndex trigramIndex;
+
+    //Respostas JSON ja codificadas do findById, invalidadas a cada escrita
+    private final LivroResponseCache responseCache;
+
+    //Roteamento das listagens e buscas para os secundarios (api.routing)
+    private final MongoRouting routing;
+
     //Manda uma Pagina em branco e retorna todos os livros
     public Page<LivroDTO> findAll(Pageable pageable) {
 
-        return livroRepository.findAll(pageable)
-                .map(livro -> mapper.map(livro, LivroDTO.class));
+        return findAll(pageable, Set.of());
+    }
+
+    //Manda uma Pagina e os campos pedidos; retorna so esses campos de todos os livros
+    public Page<LivroDTO> findAll(Pageable pageable, Set<String> fields) {
+
+        if (fields.isEmpty() && replica.isReady()) {
+            var page = queryMetrics.record("replica", null, () -> replica.search(null, pageable));
+            if (page.isPresent()) {
+                return page.get().map(mapper::toDTO);
+            }
+        }
+        return cached(QueryKey.of("all", null, pageable, fields), () -> fields.isEmpty()
+                ? queryMetrics.record("findAll", null, () -> livroRepository.findAll(pageable)).map(mapper::toDTO)
+                : queryMetrics.record("findProjected", null, () -> livroRepository.findProjected(null, pageable, fields)));
     }
 
     //Manda uma Pagina em branco e os parametros a serem os filtros. Retorna o resultado da consulta
     public Page<LivroDTO> searchByFilter(Pageable pageable, LivroFilter filter) {
 
-        Page<LivroDTO> productDTO = Page.empty();
+        return searchByFilter(pageable, filter, Set.of());
+    }
+
+    //Manda uma Pagina, os filtros e os campos pedidos (vazio retorna o documento completo)
+    public Page<LivroDTO> searchByFilter(Pageable pageable, LivroFilter filter, Set<String> fields) {
+
+        if (fields.isEmpty() && replica.isReady() && !(filter.hasQuery() && searchProperties.getEngine() == SearchEngine.TEXT)) {
+            var page = queryMetrics.record("replica", filter, () -> replica.search(filter, pageable));
+            if (page.isPresent()) {
+                return page.get().map(mapper::toDTO);
+            }
+        }
+        return cached(QueryKey.of("search", filter, pageable, fields), () -> search(pageable, filter, fields));
+    }
+
+    //As paginas vao aos secundarios quando o roteamento esta ligado. Quem escreveu ha pouco le do primario e nao passa pelo
+    //cache, que pode ter uma pagina carregada de um secundario que ainda nao viu a escrita
+    private Page<LivroDTO> cached(QueryKey key, Supplier<Page<LivroDTO>> read) {
 
-        if(filter.filterByMinAndMaxPrice()) {
+        if (routing.isPinned()) {
+            return read.get();
+        }
+        return queryResultCache.get(key, () -> routing.secondary(read));
+    }
 
-            productDTO = livroRepository.findByMinAndMaxPrice(pageable, filter.getMin_price(), filter.getMax_price());
+    //Com o motor TEXT a query vai ao indice de texto e os demais filtros seguem na mesma consulta;
+    //com o TRIGRAM a regex so confere os ids candidatos do indice; fora isso qualquer combinacao de filtros vira uma unica Criteria (LivroCriteria)
+    private Page<LivroDTO> search(Pageable pageable, LivroFilter filter, Set<String> fields) {
 
-        } else if (filter.filterByNameOrDescriptionOrGenre()) {
+        if (filter.hasQuery() && searchProperties.getEngine() == SearchEngine.TEXT) {
 
-            productDTO = livroRepository.findByNameOrDescriptionOrGenre(pageable, filter.getQuery());
+            return queryMetrics.record("findByText", filter, () ->
+                    livroRepository.findByText(pageable, filter.getQuery(), LivroCriteria.of(filter.withoutQuery()), fields));
+        }
 
-        } else if (filter.filterByNameOrDescriptionAndMinMaxPrice()) {
+        var candidates = trigramCandidates(filter);
+        if (candidates.isPresent()) {
+            var criteria = LivroCriteria.of(filter, candidates.get());
 
-            productDTO = livroRepository.findByNameOrDescriptionAndMinMaxPrice(pageable, filter.getQuery(), filter.getMin_price(), filter.getMax_price());
+            return queryMetrics.record("findByTrigram", filter, () -> livroRepository.findProjected(criteria, pageable, fields));
         }
 
-        return productDTO;
+        var criteria = LivroCriteria.of(filter);
+
+        return queryMetrics.record("findProjected", filter, () -> livroRepository.findProjected(criteria, pageable, fields));
+    }
+
+    //Manda o cursor da pagina anterior e retorna a proxima pagina de todos os livros
+    public CursorPage<LivroDTO> findAllByCursor(CursorRequest request) {
+
+        return queryMetrics.record("findByCursor", null, () -> livroRepository.findByCursor(null, request)).map(mapper::toDTO);
+    }
+
+    //Manda o cursor e os filtros; a busca por cursor sempre usa os filtros regex, pois o textScore nao serve de chave
+    public CursorPage<LivroDTO> searchByCursor(CursorRequest request, LivroFilter filter) {
+
+        var criteria = criteria(filter);
+
+        return queryMetrics.record("findByCursor", filter, () -> livroRepository.findByCursor(criteria, request)).map(mapper::toDTO);
+    }
+
+    //Manda uma Pagina e retorna os livros sem o count total; o total estimado so e calculado quando pedido
+    public SlicePage<LivroDTO> findAllSlice(Pageable pageable, boolean estimate) {
+
+        var slice = queryMetrics.record("findSlice", null, () -> livroRepository.findSlice(null, pageable)).map(mapper::toDTO);
+
+        return SlicePage.of(slice, estimate ? livroRepository.estimateCount(null) : null);
+    }
+
+    //Manda uma Pagina e os filtros e retorna os livros sem o count total (filtros regex, como na busca por cursor)
+    public SlicePage<LivroDTO> searchSlice(Pageable pageable, LivroFilter filter, boolean estimate) {
+
+        var criteria = criteria(filter);
+        var slice = queryMetrics.record("findSlice", filter, () -> livroRepository.findSlice(criteria, pageable)).map(mapper::toDTO);
+
+        return SlicePage.of(slice, estimate ? livroRepository.estimateCount(criteria) : null);
     }
 
     //Manda um Id e retorna o Livro correspondente
@@ -59,45 +181,139 @@ public class LivroService {
 
         var product = findLivro(id);
 
-        return mapper.map(product, LivroDTO.class);
+        return mapper.toDTO(product);
+    }
+
+    //Manda um Id e os campos pedidos e retorna so esses campos do Livro correspondente
+    public LivroDTO findById(String id, Set<String> fields) {
+
+        if (fields.isEmpty()) {
+            return findById(id);
+        }
+        return livroRepository.findProjectedById(id, fields)
+                .orElseThrow(() -> new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND));
+    }
+
+    //Manda um Id e retorna so o que identifica a versao do Livro (para a ETag), sem o documento inteiro:
+    //da copia em memoria ou do cache quando o livro esta neles, senao do Mongo com projecao; vazio quando nao existe
+    public Optional<Livro> findVersion(String id) {
+
+        var livro = replica.findById(id).or(() -> livroCache.getIfPresent(id));
+
+        return livro.isPresent() ? livro : livroRepository.findVersionById(id);
     }
 
     //Manda um Livro DTO para criar uma instancia de livro no banco de dado
     public LivroDTO create(LivroDTO livroDTO) {
 
-        var productMap = mapper.map(livroDTO, Livro.class);
+        var productMap = mapper.toEntity(livroDTO);
 
+        //id e version vem do Mongo: com eles o save vira um update versionado (409, ou substitui o documento e perde o createdAt)
+        productMap.setId(null);
+        productMap.setVersion(null);
         productMap.setCreatedAt(LocalDateTime.now());
 
         var product = livroRepository.save(productMap);
 
-        return mapper.map(product, LivroDTO.class);
+        livroCache.put(product);
+        replica.upsert(product);
+        trigramIndex.index(product);
+        writeGeneration.bump();
+
+        return mapper.toDTO(product);
     }
 
-    //Manda um id e o Livro DTO para mudar a instancia de mesmo ID pelo novo DTO
+    //Manda um id e o Livro DTO para substituir todos os campos editaveis da instancia de mesmo ID numa unica ida ao Mongo
     public LivroDTO update(String id, LivroDTO livroDTO) {
+        var update = new Update()
+                .set("name", livroDTO.getName())
+                .set("description", livroDTO.getDescription())
+                .set("price", livroDTO.getPrice())
+                .set("genre", livroDTO.getGenre())
+                .set("updatedAt", LocalDateTime.now());
+
+        return modify(id, livroDTO.getVersion(), update);
+    }
+
+    //Manda um id e o Livro DTO e altera apenas os campos preenchidos, numa unica ida ao Mongo
+    public LivroDTO patch(String id, LivroDTO livroDTO) {
+        var update = new Update().set("updatedAt", LocalDateTime.now());
+        if (livroDTO.getName() != null) {
+            update.set("name", livroDTO.getName());
+        }
+        if (livroDTO.getDescription() != null) {
+            update.set("description", livroDTO.getDescription());
+        }
+        if (livroDTO.getPrice() != null) {
+            update.set("price", livroDTO.getPrice());
+        }
+        if (livroDTO.getGenre() != null) {
+            update.set("genre", livroDTO.getGenre());
+        }
 
-         var updateProduct = findLivro(id);
+        return modify(id, livroDTO.getVersion(), update);
+    }
 
-             updateProduct.setId(id);
-             updateProduct.setName(livroDTO.getName());
-             updateProduct.setDescription(livroDTO.getDescription());
-             updateProduct.setPrice(livroDTO.getPrice());
-             updateProduct.setUpdatedAt(LocalDateTime.now());
+    //manda um ID e deleta a instancia associada com esse ID numa unica ida ao Mongo
+    public void delete(String id) {
+           if (!livroRepository.remove(id)) {
+               throw new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND);
+           }
+           livroCache.invalidate(id);
+           responseCache.invalidate(id);
+           replica.remove(id);
+           trigramIndex.remove(id);
+           writeGeneration.bump();
+    }
 
-         var product = livroRepository.save(updateProduct);
+    //Manda um Id e retorna se o Livro existe, sem trazer o documento
+    public boolean exists(String id) {
 
-         return mapper.map(product, LivroDTO.class);
+        return livroRepository.idExists(id);
     }
 
-    //manda um ID e deleta a instancia associada com esse ID
-    public void delete(String id) {
-           livroRepository.deleteById(findLivro(id).getId());
+    //findAndModify do update e do patch. So quando nada casou consulta se o livro existe, para separar 404 de 409
+    private LivroDTO modify(String id, Long version, Update update) {
+        var product = livroRepository.modify(id, version, update).orElseThrow(() ->
+                version != null && livroRepository.idExists(id)
+                        ? new OptimisticLockingFailureException(Constants.MESSAGE_VERSION_CONFLICT)
+                        : new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND));
+
+        livroCache.put(product);
+        responseCache.invalidate(product.getId());
+        replica.upsert(product);
+        trigramIndex.index(product);
+        writeGeneration.bump();
+
+        return mapper.toDTO(product);
     }
 
-    //metodo do delete.
+    //Criteria dos filtros; com o motor TRIGRAM e a query resolvida pelo indice, restrita aos ids candidatos
+    private Criteria criteria(LivroFilter filter) {
+        return trigramCandidates(filter)
+                .map(ids -> LivroCriteria.of(filter, ids))
+                .orElseGet(() -> LivroCriteria.of(filter));
+    }
+
+    //Ids candidatos da query pelo indice de trigramas; vazio quando o motor nao e TRIGRAM ou o indice nao responde
+    private Optional<List<String>> trigramCandidates(LivroFilter filter) {
+        if (!filter.hasQuery() || searchProperties.getEngine() != SearchEngine.TRIGRAM) {
+            return Optional.empty();
+        }
+        return trigramIndex.candidates(filter.getQuery());
+    }
+
+    //metodo do findById. Le pela copia em memoria ou pelo cache e vai ao Mongo so quando o livro nao esta em nenhum deles
+    //(um livro recem-criado por outra instancia pode ainda nao ter chegado a copia)
     private Livro findLivro(String id) {
-        return livroRepository.findById(id)
-                .orElseThrow(() -> new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND));
+        var replicated = replica.findById(id);
+        if (replicated.isPresent()) {
+            return replicated.get();
+        }
+        var livro = livroCache.get(id, key -> livroRepository.findById(key).orElse(null));
+        if (livro == null) {
+            throw new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND);
+        }
+        return livro;
     }
 }
@@ -4,12 +4,31 @@ public class Constants {
     public static final String ERROR_NOT_FOUND = "Não encontrado";
     public static final String ERROR_DATA_INTEGRITY = "Integridade de dados";
     public static final String ERROR_VALIDATION = "Erro de validação";
+    public static final String ERROR_CONFLICT = "Conflito";
     public static final String ERROR_INVALID_REQUEST = "Requisição Inválida";
+    public static final String ERROR_TOO_MANY_REQUESTS = "Muitas requisições";
     public static final String MESSAGE_INVALID_REQUEST = "Sua requisição não pôde ser processada";
 
     public static final String MESSAGE_FILL = "O preenchimento do campo ";
     public static final String MESSAGE_FIELD_REQUIRE = "Por favor, verifique o preenchimento dos campos";
+    public static final String MESSAGE_NAME_REQUIRED = MESSAGE_FILL + "name é obrigatório";
+    public static final String MESSAGE_NEGATIVE_PRICE = "O preço não pode ser negativo";
     public static final String MESSAGE_NOT_FOUND = "Objeto solicitado não encontrado";
 
+    public static final String MESSAGE_INVALID_CURSOR = "Cursor de paginação inválido para esta ordenação";
+    public static final String MESSAGE_INVALID_SORT_FIELD = "Campo de ordenação inválido: ";
+
+    public static final String MESSAGE_INVALID_PROJECTION = "Campo não pode ser projetado: ";
+
+    public static final String MESSAGE_BULK_TOO_LARGE = "Quantidade de operações acima do limite de ";
+    public static final String MESSAGE_BULK_INVALID_OPERATION = "Operação e livro são obrigatórios";
+    public static final String MESSAGE_BULK_ID_REQUIRED = "O id do livro é obrigatório para REPLACE e DELETE";
+
+    public static final String MESSAGE_IMPORT_BUSY = "Importações em andamento no limite de ";
+
+    public static final String MESSAGE_INVALID_EXPORT_FORMAT = "Formato de exportação inválido (use ndjson ou csv): ";
+
+    public static final String MESSAGE_VERSION_CONFLICT = "O livro foi alterado por outra requisição; leia de novo e reenvie com a version atual";
+
     public static final String LENGTH_FIELD = "O tamanho deve ser entre 3 e 120 caracteres";
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.api.mongodb.reactive;
+
+import com.api.mongodb.exceptions.DataIntegrityException;
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.exceptions.ObjectNotFoundException;
+import com.api.mongodb.exceptions.StandardError;
+import com.api.mongodb.exceptions.ValidationError;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroSortGuard;
+import com.api.mongodb.util.Constants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class LivroHandler {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ReactiveLivroService livroService;
+
+    private final Validator validator;
+
+    private final LivroSortGuard sortGuard;
+
+    //Lista em streaming: array JSON por padrao ou um livro por linha com Accept: application/x-ndjson.
+    //Os parametros sao lidos dentro do defer para que um valor invalido vire 400 no onErrorResume
+    public Mono<ServerResponse> findAll(ServerRequest request) {
+        return Mono.defer(() -> stream(NDJSON.isCompatibleWith(accept(request)))
+                        .body(livroService.findAll(pageable(request)), LivroDTO.class))
+                .onErrorResume(error -> error(request, error));
+    }
+
+    public Mono<ServerResponse> searchByFilter(ServerRequest request) {
+        return Mono.defer(() -> {
+                    var filter = LivroFilter.builder()
+                            .query(request.queryParam("query").orElse(null))
+                            .genre(request.queryParam("genre").orElse(null))
+                            .min_price(request.queryParam("min_price").map(Double::valueOf).orElse(null))
+                            .max_price(request.queryParam("max_price").map(Double::valueOf).orElse(null))
+                            .price_inclusive(request.queryParam("price_inclusive").map(Boolean::valueOf).orElse(null))
+                            .created_from(request.queryParam("created_from").map(LocalDateTime::parse).orElse(null))
+                            .created_to(request.queryParam("created_to").map(LocalDateTime::parse).orElse(null))
+                            .build();
+                    return stream(NDJSON.isCompatibleWith(accept(request)))
+                            .body(livroService.searchByFilter(pageable(request), filter), LivroDTO.class);
+                })
+                .onErrorResume(error -> error(request, error));
+    }
+
+    public Mono<ServerResponse> findById(ServerRequest request) {
+        return livroService.findById(request.pathVariable("id"))
+                .flatMap(livroDTO -> ServerResponse.ok().bodyValue(livroDTO))
+                .onErrorResume(error -> error(request, error));
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(LivroDTO.class)
+                .map(this::validate)
+                .flatMap(livroService::create)
+                .flatMap(livroDTO -> ServerResponse.created(request.uriBuilder().path("/{id}").build(livroDTO.getId()))
+                        .bodyValue(livroDTO))
+                .onErrorResume(error -> error(request, error));
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        return request.bodyToMono(LivroDTO.class)
+                .map(this::validate)
+                .flatMap(livroDTO -> livroService.update(request.pathVariable("id"), livroDTO))
+                .flatMap(livroDTO -> ServerResponse.ok().bodyValue(livroDTO))
+                .onErrorResume(error -> error(request, error));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        return livroService.delete(request.pathVariable("id"))
+                .then(ServerResponse.noContent().build())
+                .onErrorResume(error -> error(request, error));
+    }
+
+    //Mesmos parametros e valores padrao do LivroResource
+    private Pageable pageable(ServerRequest request) {
+        return PageRequest.of(
+                Integer.parseInt(request.queryParam("page").orElse("0")),
+                Integer.parseInt(request.queryParam("linesPerPage").orElse("24")),
+                Sort.Direction.valueOf(request.queryParam("direction").orElse("ASC")),
+                sortGuard.check(request.queryParam("orderBy").orElse("id")));
+    }
+
+    private static MediaType accept(ServerRequest request) {
+        var accept = request.headers().accept();
+        return accept.isEmpty() ? MediaType.APPLICATION_JSON : accept.get(0);
+    }
+
+    private static ServerResponse.BodyBuilder stream(boolean ndjson) {
+        return ServerResponse.ok().contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON);
+    }
+
+    //Mesmas validacoes do documento completo do create e do update do LivroResource, no formato do ResourceExceptionHandler
+    private LivroDTO validate(LivroDTO livroDTO) {
+        var violations = validator.validate(livroDTO, Default.class, LivroDTO.Complete.class);
+        if (!violations.isEmpty()) {
+            var violation = violations.iterator().next();
+            throw new FieldValidationException(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return livroDTO;
+    }
+
+    //Traduz as excecoes da aplicacao para os mesmos status e corpos do ResourceExceptionHandler
+    private static Mono<ServerResponse> error(ServerRequest request, Throwable error) {
+        var path = request.path();
+        if (error instanceof ObjectNotFoundException) {
+            return body(HttpStatus.NOT_FOUND, new StandardError(System.currentTimeMillis(), HttpStatus.NOT_FOUND.value(),
+                    Constants.ERROR_NOT_FOUND, error.getMessage(), path));
+        }
+        if (error instanceof OptimisticLockingFailureException) {
+            return body(HttpStatus.CONFLICT, new StandardError(System.currentTimeMillis(), HttpStatus.CONFLICT.value(),
+                    Constants.ERROR_CONFLICT, error.getMessage(), path));
+        }
+        if (error instanceof FieldValidationException) {
+            var validation = new ValidationError(System.currentTimeMillis(), HttpStatus.BAD_REQUEST.value(),
+                    Constants.ERROR_VALIDATION, Constants.MESSAGE_FIELD_REQUIRE, path);
+            validation.addError(((FieldValidationException) error).getFieldName(), error.getMessage());
+            return body(HttpStatus.BAD_REQUEST, validation);
+        }
+        if (error instanceof DataIntegrityException || error instanceof IllegalArgumentException
+                || error instanceof DateTimeException) {
+            return body(HttpStatus.BAD_REQUEST, new StandardError(System.currentTimeMillis(), HttpStatus.BAD_REQUEST.value(),
+                    Constants.ERROR_DATA_INTEGRITY, error.getMessage(), path));
+        }
+        return Mono.error(error);
+    }
+
+    private static Mono<ServerResponse> body(HttpStatus status, StandardError error) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(error);
+    }
+}
@@ -0,0 +1,37 @@
+package com.api.mongodb.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class LivroRouter {
+
+    // Mesmo contrato de caminhos e parametros do LivroResource
+    @Bean
+    public RouterFunction<ServerResponse> livroRoutes(LivroHandler handler) {
+        return route()
+                .path("/products", builder -> builder
+                        .GET("", handler::findAll)
+                        .GET("/search", handler::searchByFilter)
+                        .GET("/{id}", handler::findById)
+                        .POST("", contentType(MediaType.APPLICATION_JSON), handler::create)
+                        .PUT("/{id}", handler::update)
+                        .DELETE("/{id}", handler::delete))
+                .build();
+    }
+
+    // O Tomcat do starter-web continua no classpath; sem este bean o Boot serviria o WebFlux por ele e nao pelo Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,13 @@
+package com.api.mongodb.reactive;
+
+import com.api.mongodb.models.Livro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveLivroRepository extends ReactiveMongoRepository<Livro, String> {
+    // Pagina de todos os livros sem o count do Page, que impediria emitir antes do fim da consulta
+    Flux<Livro> findAllBy(Pageable pageable);
+}
@@ -0,0 +1,95 @@
+package com.api.mongodb.reactive;
+
+import com.api.mongodb.exceptions.ObjectNotFoundException;
+import com.api.mongodb.mappers.LivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroCriteria;
+import com.api.mongodb.util.Constants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLivroService {
+
+    private final LivroMapper mapper;
+
+    private final ReactiveLivroRepository livroRepository;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    //Mesma pagina do LivroService.findAll, emitida livro a livro conforme o driver le o cursor
+    public Flux<LivroDTO> findAll(Pageable pageable) {
+        return livroRepository.findAllBy(pageable).map(mapper::toDTO);
+    }
+
+    //Mesmos filtros do LivroService.searchByFilter; sem nenhum filtro devolve todos os livros
+    public Flux<LivroDTO> searchByFilter(Pageable pageable, LivroFilter filter) {
+        var criteria = LivroCriteria.of(filter);
+        var query = criteria == null ? new Query() : new Query(criteria);
+        return mongoTemplate.find(query.with(pageable), Livro.class).map(mapper::toDTO);
+    }
+
+    public Mono<LivroDTO> findById(String id) {
+        return findLivro(id).map(mapper::toDTO);
+    }
+
+    public Mono<LivroDTO> create(LivroDTO livroDTO) {
+        var livro = mapper.toEntity(livroDTO);
+        //id e version vem do Mongo, como no LivroService.create
+        livro.setId(null);
+        livro.setVersion(null);
+        livro.setCreatedAt(LocalDateTime.now());
+        return livroRepository.save(livro).map(mapper::toDTO);
+    }
+
+    //Mesmo findAndModify do LivroService.update, com a mesma checagem de version
+    public Mono<LivroDTO> update(String id, LivroDTO livroDTO) {
+        var criteria = Criteria.where("id").is(id);
+        if (livroDTO.getVersion() != null) {
+            criteria.and("version").is(livroDTO.getVersion());
+        }
+        var update = new Update()
+                .set("name", livroDTO.getName())
+                .set("description", livroDTO.getDescription())
+                .set("price", livroDTO.getPrice())
+                .set("genre", livroDTO.getGenre())
+                .set("updatedAt", LocalDateTime.now())
+                .inc("version", 1);
+
+        return mongoTemplate.findAndModify(new Query(criteria), update, FindAndModifyOptions.options().returnNew(true), Livro.class)
+                .switchIfEmpty(Mono.defer(() -> livroRepository.existsById(id).flatMap(exists -> Mono.<Livro>error(
+                        exists && livroDTO.getVersion() != null
+                                ? new OptimisticLockingFailureException(Constants.MESSAGE_VERSION_CONFLICT)
+                                : new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND)))))
+                .map(mapper::toDTO);
+    }
+
+    //Mesma exclusao em uma ida ao Mongo do LivroService.delete
+    public Mono<Void> delete(String id) {
+        return mongoTemplate.remove(new Query(Criteria.where("id").is(id)), Livro.class)
+                .flatMap(result -> result.getDeletedCount() > 0
+                        ? Mono.<Void>empty()
+                        : Mono.error(new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND)));
+    }
+
+    private Mono<Livro> findLivro(String id) {
+        return livroRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ObjectNotFoundException(Constants.MESSAGE_NOT_FOUND)));
+    }
+}
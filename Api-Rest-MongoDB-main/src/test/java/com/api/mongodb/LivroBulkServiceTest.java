@@ -0,0 +1,183 @@
+package com.api.mongodb;
+
+import com.api.mongodb.cache.LivroCache;
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.BulkPropertiesConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO;
+import com.api.mongodb.models.dto.LivroBulkOperationDTO.Operation;
+import com.api.mongodb.models.dto.LivroBulkResultDTO.Status;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.search.LivroTrigramIndex;
+import com.api.mongodb.services.LivroBulkService;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LivroBulkServiceTest {
+
+    @InjectMocks
+    private LivroBulkService livroBulkService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private LivroCache livroCache;
+
+    @Mock
+    private LivroTrigramIndex trigramIndex;
+
+    @Mock
+    private LivroResponseCache responseCache;
+
+    @Spy
+    private SpecializedLivroMapper mapper;
+
+    @Spy
+    private BulkPropertiesConfig properties;
+
+    @Spy
+    private WriteGeneration writeGeneration;
+
+    private static final String EXISTING_ID = "62eff2aa4e6fc45b97ab3d84";
+
+    private static final String MISSING_ID = "62eff2aa4e6fc45b97ab3d85";
+
+    // O Mongo conhece apenas o EXISTING_ID e o bulk e executado sem erros
+    @Before
+    public void setup() {
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Livro.class)).thenReturn(bulkOperations);
+        when(mongoTemplate.find(any(Query.class), eq(Livro.class))).thenReturn(List.of(Livro.builder().id(EXISTING_ID).build()));
+    }
+
+    //Cada operacao recebe o seu resultado, na ordem da requisicao, e so as validas vao para o bulkWrite
+    @Test
+    public void whenExecuteMixedOperations_ReturnOneResultPerOperation() {
+        var operations = List.of(
+                new LivroBulkOperationDTO(Operation.INSERT, LivroDTO.builder().name("Contos Fantasmas").price(1.2).build()),
+                new LivroBulkOperationDTO(Operation.REPLACE, LivroDTO.builder().id(EXISTING_ID).name("Contos").build()),
+                new LivroBulkOperationDTO(Operation.DELETE, LivroDTO.builder().id(MISSING_ID).build()),
+                new LivroBulkOperationDTO(Operation.DELETE, LivroDTO.builder().build()),
+                new LivroBulkOperationDTO(null, null));
+
+        var results = livroBulkService.execute(operations);
+
+        assertEquals(5, results.size());
+        assertEquals(Status.CREATED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getId());
+        assertEquals(Status.UPDATED, results.get(1).getStatus());
+        assertEquals(Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(Status.INVALID, results.get(3).getStatus());
+        assertEquals(Status.INVALID, results.get(4).getStatus());
+
+        verify(bulkOperations, times(1)).insert(any(Livro.class));
+        verify(bulkOperations, times(1)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, never()).remove(any(Query.class));
+        verify(bulkOperations, times(1)).execute();
+        verify(livroCache, times(1)).invalidate(EXISTING_ID);
+        verify(responseCache, times(1)).invalidate(EXISTING_ID);
+        verify(trigramIndex, times(2)).index(any(Livro.class));
+        assertEquals(1, writeGeneration.current());
+    }
+
+    //Operacoes acima do batchSize sao divididas em varios bulkWrite
+    @Test
+    public void whenExecuteMoreThanBatchSize_SplitIntoBatches() {
+        properties.setBatchSize(2);
+        var insert = new LivroBulkOperationDTO(Operation.INSERT, LivroDTO.builder().name("Contos Fantasmas").build());
+
+        var results = livroBulkService.execute(List.of(insert, insert, insert));
+
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(2).getIndex());
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    //INSERT e REPLACE passam pelas mesmas regras do POST e do PUT; so as operacoes validas vao para o bulkWrite
+    @Test
+    public void whenOperationFailsValidation_ReturnInvalid() {
+        var service = service(Validation.buildDefaultValidatorFactory().getValidator());
+        var operations = List.of(
+                new LivroBulkOperationDTO(Operation.INSERT, LivroDTO.builder().price(1.0).build()),
+                new LivroBulkOperationDTO(Operation.INSERT, LivroDTO.builder().name("Contos").price(-1.0).build()),
+                new LivroBulkOperationDTO(Operation.REPLACE, LivroDTO.builder().id(EXISTING_ID).name("ab").build()),
+                new LivroBulkOperationDTO(Operation.DELETE, LivroDTO.builder().id(EXISTING_ID).build()));
+
+        var results = service.execute(operations);
+
+        assertEquals(Status.INVALID, results.get(0).getStatus());
+        assertEquals(Status.INVALID, results.get(1).getStatus());
+        assertEquals(Status.INVALID, results.get(2).getStatus());
+        assertEquals(Status.DELETED, results.get(3).getStatus());
+        verify(bulkOperations, never()).insert(any(Livro.class));
+        verify(bulkOperations, never()).updateOne(any(Query.class), any(Update.class));
+    }
+
+    //REPLACE com version diferente da do Mongo e um conflito; com a version atual ela vai no filtro do updateOne
+    @Test
+    public void whenReplaceWithVersion_OnlyReplaceCurrentVersion() {
+        when(mongoTemplate.find(any(Query.class), eq(Livro.class))).thenReturn(List.of(Livro.builder().id(EXISTING_ID).version(3L).build()));
+        var operations = List.of(
+                new LivroBulkOperationDTO(Operation.REPLACE, LivroDTO.builder().id(EXISTING_ID).name("Contos").version(2L).build()),
+                new LivroBulkOperationDTO(Operation.REPLACE, LivroDTO.builder().id(EXISTING_ID).name("Contos").version(3L).build()));
+
+        var results = livroBulkService.execute(operations);
+
+        assertEquals(Status.CONFLICT, results.get(0).getStatus());
+        assertEquals(Status.UPDATED, results.get(1).getStatus());
+        var query = ArgumentCaptor.forClass(Query.class);
+        verify(bulkOperations, times(1)).updateOne(query.capture(), any(Update.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        verify(trigramIndex, times(1)).index(any(Livro.class));
+    }
+
+    //INSERT descarta id e version do cliente, como o create: o livro entra com um id novo e sem version
+    @Test
+    public void whenInsertWithIdAndVersion_InsertAsNewLivro() {
+        var operations = List.of(new LivroBulkOperationDTO(Operation.INSERT,
+                LivroDTO.builder().id(EXISTING_ID).name("Contos Fantasmas").version(7L).build()));
+
+        var results = livroBulkService.execute(operations);
+
+        var livro = ArgumentCaptor.forClass(Livro.class);
+        verify(bulkOperations, times(1)).insert(livro.capture());
+        assertNotEquals(EXISTING_ID, livro.getValue().getId());
+        assertNull(livro.getValue().getVersion());
+        assertEquals(livro.getValue().getId(), results.get(0).getId());
+    }
+
+    private LivroBulkService service(Validator validator) {
+        return new LivroBulkService(mongoTemplate, mapper, validator, properties, livroCache, responseCache, writeGeneration, trigramIndex);
+    }
+}
@@ -0,0 +1,136 @@
+package com.api.mongodb;
+
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.replica.LivroColumns;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LivroColumnsTest {
+
+    private LivroColumns columns;
+
+    // Seta antes dos testes uma copia com quatro livros de tres generos
+    @Before
+    public void setup() {
+        columns = new LivroColumns();
+        columns.replaceAll(List.of(
+                livro("a1", "Contos Fantasmas", "Livro de terror", 12.0, "Terror", "2022-08-01T10:00:00"),
+                livro("a2", "Casa Assombrada", "Fantasmas na casa", 30.0, "Terror", "2022-08-15T10:00:00"),
+                livro("a3", "Amor de Verao", "Romance leve", 10.0, "Romance", "2022-09-01T10:00:00"),
+                livro("a4", "Sem Preco", null, null, "Poesia", null)));
+    }
+
+    //Sem filtro devolve todos, na ordem do id
+    @Test
+    public void whenSearchWithoutFilter_ReturnAllById() {
+        var page = search(null, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(List.of("a1", "a2", "a3", "a4"), ids(page));
+    }
+
+    //Genero exato, faixa de preco exclusiva por padrao e faixa de criacao semiaberta
+    @Test
+    public void whenSearchByGenrePriceAndCreatedAt_ApplyLivroCriteriaSemantics() {
+        assertEquals(List.of("a1", "a2"), ids(search(LivroFilter.builder().genre("Terror").build(), byId())));
+        assertEquals(List.of("a2"), ids(search(LivroFilter.builder().min_price(12.0).build(), byId())));
+        assertEquals(List.of("a1", "a2"), ids(search(LivroFilter.builder().min_price(12.0).price_inclusive(true).build(), byId())));
+        assertEquals(List.of("a1"), ids(search(LivroFilter.builder()
+                .created_from(LocalDateTime.parse("2022-08-01T10:00:00"))
+                .created_to(LocalDateTime.parse("2022-08-15T10:00:00")).build(), byId())));
+        assertEquals(List.of(), ids(search(LivroFilter.builder().genre("Drama").build(), byId())));
+    }
+
+    //A query procura sem diferenciar maiusculas no nome, na descricao e no genero
+    @Test
+    public void whenSearchByQuery_MatchNameDescriptionOrGenre() {
+        assertEquals(List.of("a1", "a2"), ids(search(LivroFilter.builder().query("fantasmas").build(), byId())));
+        assertEquals(List.of("a3"), ids(search(LivroFilter.builder().query("ROMANCE").build(), byId())));
+        assertEquals(List.of("a2"), ids(search(LivroFilter.builder().query("casa").genre("Terror").build(), byId())));
+    }
+
+    //Ordena pelo preco com nulos primeiro e pagina so o trecho pedido
+    @Test
+    public void whenSortByPrice_PageInOrder() {
+        var first = search(null, PageRequest.of(0, 2, Sort.by("price")));
+        var second = search(null, PageRequest.of(1, 2, Sort.by("price")));
+        var descending = search(null, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "price")));
+
+        assertEquals(List.of("a4", "a3"), ids(first));
+        assertEquals(List.of("a1", "a2"), ids(second));
+        assertEquals(List.of("a2"), ids(descending));
+        assertEquals(4, first.getTotalElements());
+    }
+
+    //Campo de ordenacao fora das colunas nao e respondido pela copia
+    @Test
+    public void whenSortByUnknownField_ReturnEmpty() {
+        assertFalse(columns.search(null, PageRequest.of(0, 10, Sort.by("publisher"))).isPresent());
+    }
+
+    //Upsert substitui a linha existente e remove libera a linha para o proximo livro
+    @Test
+    public void whenUpsertAndRemove_KeepColumnsConsistent() {
+        columns.upsert(livro("a1", "Contos Fantasmas", "Livro de terror", 15.0, "Suspense", "2022-08-01T10:00:00"));
+        assertTrue(columns.remove("a3"));
+        assertFalse(columns.remove("a3"));
+        columns.upsert(livro("a5", "Novo", "Livro novo", 5.0, "Romance", "2022-10-01T10:00:00"));
+
+        assertEquals(4, columns.size());
+        assertEquals(4, columns.genreCount());
+        assertEquals(Double.valueOf(15.0), columns.findById("a1").get().getPrice());
+        assertEquals("Suspense", columns.findById("a1").get().getGenre());
+        assertFalse(columns.findById("a3").isPresent());
+        assertEquals(List.of("a1", "a2", "a4", "a5"), ids(search(null, byId())));
+        assertEquals(List.of("a5"), ids(search(LivroFilter.builder().genre("Romance").build(), byId())));
+    }
+
+    //Os campos voltam das colunas como foram gravados, inclusive os nulos
+    @Test
+    public void whenFindById_RebuildLivro() {
+        var livro = columns.findById("a4").get();
+
+        assertEquals("Sem Preco", livro.getName());
+        assertNull(livro.getDescription());
+        assertNull(livro.getPrice());
+        assertNull(livro.getCreatedAt());
+        assertEquals(LocalDateTime.parse("2022-08-15T10:00:00"), columns.findById("a2").get().getCreatedAt());
+    }
+
+    private Page<Livro> search(LivroFilter filter, Pageable pageable) {
+        return columns.search(filter, pageable).get();
+    }
+
+    private static Pageable byId() {
+        return PageRequest.of(0, 10, Sort.by("id"));
+    }
+
+    private static List<String> ids(Page<Livro> page) {
+        return page.getContent().stream().map(Livro::getId).collect(Collectors.toList());
+    }
+
+    private static Livro livro(String id, String name, String description, Double price, String genre, String createdAt) {
+        return Livro.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(price)
+                .genre(genre)
+                .createdAt(createdAt == null ? null : LocalDateTime.parse(createdAt))
+                .build();
+    }
+}
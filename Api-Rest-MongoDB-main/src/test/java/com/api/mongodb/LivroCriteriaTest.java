@@ -0,0 +1,96 @@
+package com.api.mongodb;
+
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroCriteria;
+import org.bson.Document;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LivroCriteriaTest {
+
+    //Sem nenhum filtro a Criteria e nula e o repositorio busca todos os livros
+    @Test
+    public void whenFilterIsEmpty_ReturnNull() {
+        assertNull(LivroCriteria.of(LivroFilter.builder().build()));
+        assertNull(LivroCriteria.of(LivroFilter.builder().query(" ").genre("").build()));
+    }
+
+    //So o preco minimo tambem filtra, com a faixa exclusiva por padrao
+    @Test
+    public void whenOnlyMinPrice_FilterExclusivePrice() {
+        var criteria = LivroCriteria.of(LivroFilter.builder().min_price(2.0).build());
+
+        assertEquals(new Document("price", new Document("$gt", 2.0)), criteria.getCriteriaObject());
+    }
+
+    //Com price_inclusive os limites entram na faixa
+    @Test
+    public void whenPriceInclusive_FilterInclusivePrice() {
+        var criteria = LivroCriteria.of(LivroFilter.builder().min_price(2.0).max_price(6.0).price_inclusive(true).build());
+
+        assertEquals(new Document("price", new Document("$gte", 2.0).append("$lte", 6.0)), criteria.getCriteriaObject());
+    }
+
+    //Todos os campos saem num unico documento: genero, preco, criacao e por ultimo o $or de regex
+    @Test
+    public void whenAllFields_ComposeOneDocumentInIndexOrder() {
+        var from = LocalDateTime.parse("2022-08-01T00:00:00");
+        var to = LocalDateTime.parse("2022-09-01T00:00:00");
+        var criteria = LivroCriteria.of(LivroFilter.builder()
+                .query("fantasmas").genre("Terror").min_price(2.0).max_price(6.0).created_from(from).created_to(to).build());
+
+        var document = criteria.getCriteriaObject();
+
+        assertEquals(List.of("genre", "price", "createdAt", "$or"), List.copyOf(document.keySet()));
+        assertEquals("Terror", document.get("genre"));
+        assertEquals(new Document("$gt", 2.0).append("$lt", 6.0), document.get("price"));
+        assertEquals(new Document("$gte", from).append("$lt", to), document.get("createdAt"));
+        assertEquals(List.of("name", "description"), orFields(document));
+    }
+
+    //Sem genero fixo a query tambem procura no genero
+    @Test
+    public void whenQueryWithoutGenre_SearchNameDescriptionAndGenre() {
+        var document = LivroCriteria.of(LivroFilter.builder().query("terror").build()).getCriteriaObject();
+
+        assertEquals(List.of("name", "description", "genre"), orFields(document));
+        var regex = (Pattern) ((Document) ((List<?>) document.get("$or")).get(0)).get("name");
+        assertEquals("terror", regex.pattern());
+        assertTrue((regex.flags() & Pattern.CASE_INSENSITIVE) != 0);
+    }
+
+    //Quando a query casa com o genero fixo o $or e sempre verdadeiro e sai da consulta
+    @Test
+    public void whenQueryMatchesFixedGenre_DropRegex() {
+        var document = LivroCriteria.of(LivroFilter.builder().query("terr").genre("Terror").build()).getCriteriaObject();
+
+        assertEquals(new Document("genre", "Terror"), document);
+    }
+
+    //Filtros da mesma forma reaproveitam o plano e recebem os proprios valores
+    @Test
+    public void whenSameShape_ReusePlanWithNewValues() {
+        var first = LivroCriteria.of(LivroFilter.builder().genre("Terror").max_price(10.0).build());
+        var planned = LivroCriteria.plannedShapes();
+        var second = LivroCriteria.of(LivroFilter.builder().genre("Drama").max_price(20.0).build());
+
+        assertEquals(planned, LivroCriteria.plannedShapes());
+        assertEquals(new Document("genre", "Terror").append("price", new Document("$lt", 10.0)), first.getCriteriaObject());
+        assertEquals(new Document("genre", "Drama").append("price", new Document("$lt", 20.0)), second.getCriteriaObject());
+        assertFalse(first.getCriteriaObject().equals(second.getCriteriaObject()));
+    }
+
+    private static List<Object> orFields(Document document) {
+        return ((List<?>) document.get("$or")).stream()
+                .map(clause -> ((Document) clause).keySet().iterator().next())
+                .collect(java.util.stream.Collectors.toList());
+    }
+}
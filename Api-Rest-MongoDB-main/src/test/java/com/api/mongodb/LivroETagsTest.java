@@ -0,0 +1,74 @@
+package com.api.mongodb;
+
+import com.api.mongodb.cache.LivroETags;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.ETagPropertiesConfig;
+import com.api.mongodb.models.Livro;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LivroETagsTest {
+
+    private WriteGeneration writeGeneration;
+
+    private LivroETags etags;
+
+    // Seta antes dos testes uma janela longa, para a ETag das listagens so mudar com as escritas
+    @Before
+    public void setup() {
+        var properties = new ETagPropertiesConfig();
+        properties.setCollectionWindow(Duration.ofDays(1));
+        writeGeneration = new WriteGeneration();
+        etags = new LivroETags(writeGeneration, properties);
+    }
+
+    //A ETag do livro muda com a version e com o updatedAt
+    @Test
+    public void whenLivroChanges_ChangeETag() {
+        var livro = Livro.builder().id("a1").version(0L).createdAt(LocalDateTime.parse("2022-08-01T10:00:00")).build();
+        var created = etags.of(livro);
+
+        livro.setVersion(1L);
+        livro.setUpdatedAt(LocalDateTime.parse("2022-08-02T10:00:00"));
+
+        assertFalse(created.equals(etags.of(livro)));
+        assertEquals(etags.of(livro), etags.of(Livro.builder().id("a1").version(1L).updatedAt(livro.getUpdatedAt()).build()));
+    }
+
+    //Sem updatedAt a ultima alteracao e a criacao; sem nenhuma data nao ha Last-Modified
+    @Test
+    public void whenNeverUpdated_LastModifiedIsCreatedAt() {
+        var createdAt = LocalDateTime.parse("2022-08-01T10:00:00");
+
+        assertEquals(etags.lastModified(Livro.builder().updatedAt(createdAt).build()),
+                etags.lastModified(Livro.builder().createdAt(createdAt).build()));
+        assertEquals(-1, etags.lastModified(Livro.builder().build()));
+    }
+
+    //A ETag das listagens so muda quando algo e escrito
+    @Test
+    public void whenWriteGenerationChanges_ChangeCollectionETag() {
+        var before = etags.collection();
+
+        assertEquals(before, etags.collection());
+        writeGeneration.bump();
+        assertFalse(before.equals(etags.collection()));
+    }
+
+    //JSON e os formatos binarios negociados pelo Accept recebem ETags diferentes
+    @Test
+    public void whenAcceptBinaryFormat_SuffixETag() {
+        assertEquals("", etags.variant(null));
+        assertEquals("", etags.variant("*/*"));
+        assertEquals("", etags.variant("application/json"));
+        assertEquals("-cbor", etags.variant("application/cbor"));
+        assertEquals("-x-msgpack", etags.variant("application/json;q=0.5, application/x-msgpack"));
+        assertEquals("", etags.variant("application/x-jackson-smile;q=0.5, application/json"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.api.mongodb;
+
+import com.api.mongodb.configuration.ExportPropertiesConfig;
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.services.LivroExportService;
+import com.api.mongodb.services.LivroExportService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LivroExportServiceTest {
+
+    @InjectMocks
+    private LivroExportService livroExportService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Spy
+    private SpecializedLivroMapper mapper;
+
+    @Spy
+    private ObjectMapper objectMapper;
+
+    @Spy
+    private ExportPropertiesConfig properties;
+
+    @Spy
+    private MongoRouting routing = new MongoRouting(new RoutingPropertiesConfig());
+
+    //Uma linha JSON por livro, na ordem do cursor
+    @Test
+    public void whenExportNdjson_WriteOneLinePerLivro() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Livro.class))).thenReturn(cursor(List.of(
+                Livro.builder().id("1").name("Contos").price(1.2).build(),
+                Livro.builder().id("2").name("Fantasmas").build())));
+
+        var output = new ByteArrayOutputStream();
+        livroExportService.export(new LivroFilter(), Format.NDJSON, output);
+
+        assertEquals("{\"id\":\"1\",\"name\":\"Contos\",\"price\":1.2}\n{\"id\":\"2\",\"name\":\"Fantasmas\"}\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    //Valores com virgula ou aspas saem entre aspas, com as aspas duplicadas
+    @Test
+    public void whenExportCsv_EscapeSeparatorsAndQuotes() throws Exception {
+        when(mongoTemplate.stream(any(Query.class), eq(Livro.class))).thenReturn(cursor(List.of(
+                Livro.builder().id("1").name("Contos, \"Fantasmas\"").price(1.2).genre("Terror").build())));
+
+        var output = new ByteArrayOutputStream();
+        livroExportService.export(new LivroFilter(), Format.CSV, output);
+
+        assertEquals("id,name,description,price,createdAt,updatedAt,genre\n1,\"Contos, \"\"Fantasmas\"\"\",,1.2,,,Terror\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    private static CloseableIterator<Livro> cursor(List<Livro> livros) {
+        Iterator<Livro> iterator = livros.iterator();
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Livro next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
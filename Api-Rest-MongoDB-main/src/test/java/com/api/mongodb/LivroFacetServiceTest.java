@@ -0,0 +1,139 @@
+package com.api.mongodb;
+
+import com.api.mongodb.cache.FacetResultCache;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.configuration.FacetPropertiesConfig;
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.metrics.LivroQueryMetrics;
+import com.api.mongodb.models.dto.LivroFacetsDTO;
+import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.repositories.LivroRepository;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.services.LivroFacetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LivroFacetServiceTest {
+
+    @Mock
+    private LivroRepository livroRepository;
+
+    private FacetPropertiesConfig properties;
+
+    private CachePropertiesConfig cacheProperties;
+
+    private WriteGeneration writeGeneration;
+
+    private LivroFacetService livroFacetService;
+
+    private LivroFacetsDTO facets;
+
+    // Seta antes dos testes o service com cache de facetas real
+    @Before
+    public void setup() {
+        properties = new FacetPropertiesConfig();
+        cacheProperties = new CachePropertiesConfig();
+        writeGeneration = new WriteGeneration();
+        livroFacetService = service();
+        facets = LivroFacetsDTO.builder()
+                .total(2)
+                .minPrice(1.2)
+                .maxPrice(30.0)
+                .genres(List.of(new LivroFacetsDTO.GenreCount("Terror", 2)))
+                .prices(List.of(new LivroFacetsDTO.PriceBucket(0.0, 10.0, 1), new LivroFacetsDTO.PriceBucket(25.0, 50.0, 1)))
+                .build();
+    }
+
+    //A agregacao recebe a Criteria do filtro e os limites configurados
+    @Test
+    public void whenFacets_AggregateFilterCriteriaWithPriceBoundaries() {
+        when(livroRepository.facets(any(Criteria.class), eq(properties.getPriceBoundaries()))).thenReturn(facets);
+
+        var result = livroFacetService.facets(LivroFilter.builder().genre("Terror").build());
+
+        var criteria = ArgumentCaptor.forClass(Criteria.class);
+        verify(livroRepository, times(1)).facets(criteria.capture(), eq(properties.getPriceBoundaries()));
+        assertEquals(new Document("genre", "Terror"), criteria.getValue().getCriteriaObject());
+        assertSame(facets, result);
+    }
+
+    //Sem filtro a agregacao roda sobre todos os livros
+    @Test
+    public void whenFacetsWithoutFilter_AggregateAll() {
+        when(livroRepository.facets(null, properties.getPriceBoundaries())).thenReturn(facets);
+
+        assertSame(facets, livroFacetService.facets(new LivroFilter()));
+
+        verify(livroRepository, times(1)).facets(null, properties.getPriceBoundaries());
+    }
+
+    //O mesmo filtro sem escrita no meio e servido pelo cache
+    @Test
+    public void whenSameFilterTwice_AggregateOnce() {
+        when(livroRepository.facets(null, properties.getPriceBoundaries())).thenReturn(facets);
+
+        livroFacetService.facets(new LivroFilter());
+        var cached = livroFacetService.facets(new LivroFilter());
+
+        verify(livroRepository, times(1)).facets(null, properties.getPriceBoundaries());
+        assertSame(facets, cached);
+    }
+
+    //Uma escrita muda a geracao e a proxima leitura agrega de novo
+    @Test
+    public void whenWriteGenerationChanges_AggregateAgain() {
+        when(livroRepository.facets(null, properties.getPriceBoundaries())).thenReturn(facets);
+
+        livroFacetService.facets(new LivroFilter());
+        writeGeneration.bump();
+        livroFacetService.facets(new LivroFilter());
+
+        verify(livroRepository, times(2)).facets(null, properties.getPriceBoundaries());
+    }
+
+    //Filtros diferentes nao compartilham a entrada do cache
+    @Test
+    public void whenDifferentFilters_AggregateEach() {
+        when(livroRepository.facets(any(), eq(properties.getPriceBoundaries()))).thenReturn(facets);
+
+        livroFacetService.facets(LivroFilter.builder().genre("Terror").build());
+        livroFacetService.facets(LivroFilter.builder().genre("Drama").build());
+
+        verify(livroRepository, times(2)).facets(any(), eq(properties.getPriceBoundaries()));
+    }
+
+    //Com o cache desligado toda leitura agrega
+    @Test
+    public void whenCacheDisabled_AggregateEveryTime() {
+        cacheProperties.getFacets().setEnabled(false);
+        livroFacetService = service();
+        when(livroRepository.facets(null, properties.getPriceBoundaries())).thenReturn(facets);
+
+        livroFacetService.facets(new LivroFilter());
+        livroFacetService.facets(new LivroFilter());
+
+        verify(livroRepository, times(2)).facets(null, properties.getPriceBoundaries());
+    }
+
+    private LivroFacetService service() {
+        var registry = new SimpleMeterRegistry();
+        return new LivroFacetService(livroRepository, properties,
+                new FacetResultCache(cacheProperties, writeGeneration, registry), new LivroQueryMetrics(registry),
+                new MongoRouting(new RoutingPropertiesConfig()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.api.mongodb;
+
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.ImportPropertiesConfig;
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.exceptions.TooManyRequestsException;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroImportResultDTO.LineError;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.search.LivroTrigramIndex;
+import com.api.mongodb.services.LivroImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class LivroImportServiceTest {
+
+    @InjectMocks
+    private LivroImportService livroImportService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private LivroTrigramIndex trigramIndex;
+
+    @Spy
+    private SpecializedLivroMapper mapper;
+
+    @Spy
+    private ObjectMapper objectMapper;
+
+    @Spy
+    private ImportPropertiesConfig properties;
+
+    @Spy
+    private WriteGeneration writeGeneration;
+
+    @Spy
+    private MongoRouting routing = new MongoRouting(new RoutingPropertiesConfig());
+
+    @Before
+    public void setup() {
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Livro.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    //Linhas em branco sao ignoradas, JSON invalido e rejeitado com o numero da linha e o resto e inserido
+    @Test
+    public void whenImportNdjson_CountInsertedAndRejectedLines() throws Exception {
+        var body = "{\"name\":\"Contos\",\"price\":1.2}\n\n{\"name\":\n{\"name\":\"Fantasmas\",\"price\":2.5}\n";
+
+        var result = livroImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getInserted());
+        assertEquals(1, result.getRejected());
+        assertEquals(0, result.getFailed());
+        assertEquals(3, result.getErrors().get(0).getLine());
+        verify(bulkOperations, times(1)).execute();
+        verify(trigramIndex, times(2)).index(any(Livro.class));
+        assertEquals(1, writeGeneration.current());
+    }
+
+    //Com batchSize 2 tres livros viram dois bulkWrite
+    @Test
+    public void whenImportMoreThanBatchSize_SplitInBatches() throws Exception {
+        properties.setBatchSize(2);
+        var body = "{\"name\":\"Contos\"}\n{\"name\":\"Fantasmas\"}\n{\"name\":\"Lendas\"}";
+
+        var result = livroImportService.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.getInserted());
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    //Linhas sem name, com name curto ou preco negativo sao rejeitadas pelas mesmas validacoes do POST
+    @Test
+    public void whenLineFailsValidation_RejectLine() throws Exception {
+        var service = service(Validation.buildDefaultValidatorFactory().getValidator());
+        var body = "{\"price\":1.0}\n{\"name\":\"ab\"}\n{\"name\":\"Contos\",\"price\":-1}\n{\"name\":\"Contos\"}\n";
+
+        var result = service.importNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, result.getInserted());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(1L, 2L, 3L), result.getErrors().stream().map(LineError::getLine).collect(Collectors.toList()));
+    }
+
+    //Com maxConcurrent importacoes em andamento a proxima e recusada, e volta a ser aceita quando uma termina
+    @Test
+    public void whenTooManyConcurrentImports_ThrowTooManyRequestsException() throws Exception {
+        properties.setMaxConcurrent(1);
+        var service = service(validator);
+        var reading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var body = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return -1;
+            }
+        };
+        var first = Executors.newSingleThreadExecutor().submit(() -> service.importNdjson(body));
+        reading.await();
+
+        Assertions.assertThrows(TooManyRequestsException.class, () ->
+                service.importNdjson(new ByteArrayInputStream(new byte[0])));
+
+        release.countDown();
+        first.get();
+        assertEquals(0, service.importNdjson(new ByteArrayInputStream(new byte[0])).getInserted());
+        service.destroy();
+    }
+
+    private LivroImportService service(Validator validator) {
+        return new LivroImportService(mongoTemplate, mapper, objectMapper, validator, properties, writeGeneration, trigramIndex, routing);
+    }
+}
@@ -0,0 +1,81 @@
+package com.api.mongodb;
+
+import com.api.mongodb.configuration.ModelMapperConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.models.Livro;
+import com.api.mongodb.models.dto.LivroDTO;
+import org.junit.Before;
+import org.junit.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LivroMapperTest {
+
+    // Mapper reflexivo configurado igual ao bean da aplicacao
+    private ModelMapper modelMapper;
+
+    // Mapper especializado que substitui o ModelMapper
+    private SpecializedLivroMapper livroMapper;
+
+    private Livro livro;
+
+    private LivroDTO livroDTO;
+
+    @Before
+    public void setup() {
+        modelMapper = new ModelMapperConfig().modelMapper();
+        livroMapper = new SpecializedLivroMapper();
+
+        livro = Livro.builder()
+                .id("62eff2aa4e6fc45b97ab3d84")
+                .name("Contos Fantasmas")
+                .description("Livro broxura")
+                .price(1.2)
+                .createdAt(LocalDateTime.parse("2022-08-07T14:16:23.442816"))
+                .updatedAt(LocalDateTime.parse("2022-08-08T14:11:22.232816"))
+                .genre("Terror")
+                .build();
+
+        livroDTO = LivroDTO.builder()
+                .id("62eff2aa4e6fc45b97ab3d84")
+                .name("Contos Fantasmas")
+                .description("Livro broxura")
+                .price(1.2)
+                .createdAt(LocalDateTime.parse("2022-08-07T14:16:23.442816"))
+                .updatedAt(LocalDateTime.parse("2022-08-08T14:11:22.232816"))
+                .genre("Terror")
+                .build();
+    }
+
+    //O mapper especializado gera o mesmo DTO que o ModelMapper
+    @Test
+    public void whenToDTO_ThenSameResultAsModelMapper() {
+        assertEquals(modelMapper.map(livro, LivroDTO.class), livroMapper.toDTO(livro));
+    }
+
+    //O mapper especializado gera o mesmo Livro que o ModelMapper
+    @Test
+    public void whenToEntity_ThenSameResultAsModelMapper() {
+        assertEquals(modelMapper.map(livroDTO, Livro.class), livroMapper.toEntity(livroDTO));
+    }
+
+    //Campos nulos continuam nulos nos dois mappers, como num POST sem id e sem datas
+    @Test
+    public void whenFieldsAreNull_ThenSameResultAsModelMapper() {
+        var partial = LivroDTO.builder().name("Contos Fantasmas").price(1.2).build();
+
+        assertEquals(modelMapper.map(partial, Livro.class), livroMapper.toEntity(partial));
+        assertEquals(modelMapper.map(livroMapper.toEntity(partial), LivroDTO.class), livroMapper.toDTO(livroMapper.toEntity(partial)));
+    }
+
+    //Objeto nulo retorna nulo
+    @Test
+    public void whenNull_ThenReturnNull() {
+        assertNull(livroMapper.toDTO(null));
+        assertNull(livroMapper.toEntity(null));
+    }
+}
@@ -0,0 +1,92 @@
+package com.api.mongodb;
+
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.models.dto.LivroDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LivroResponseCacheTest {
+
+    private ObjectMapper objectMapper;
+
+    private CachePropertiesConfig properties;
+
+    private LivroResponseCache cache;
+
+    private LivroDTO livroDTO;
+
+    private AtomicInteger loads;
+
+    // Seta antes dos testes um cache com o ObjectMapper e um livro com datas
+    @Before
+    public void setup() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        properties = new CachePropertiesConfig();
+        cache = new LivroResponseCache(properties, objectMapper, new SimpleMeterRegistry());
+        livroDTO = LivroDTO.builder()
+                .id("62eff2aa4e6fc45b97ab3d84")
+                .name("Contos Fantasmas")
+                .description("Livro broxura")
+                .price(1.2)
+                .genre("Terror")
+                .createdAt(LocalDateTime.parse("2022-08-07T14:16:23.442816"))
+                .build();
+        loads = new AtomicInteger();
+    }
+
+    //Os bytes guardados sao o mesmo JSON do ObjectMapper e a segunda leitura nao serializa de novo
+    @Test
+    public void whenSameLivroTwice_EncodeOnce() throws Exception {
+        var first = cache.get(livroDTO.getId(), "e1", this::load);
+        var second = cache.get(livroDTO.getId(), "e1", this::load);
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(objectMapper.writeValueAsString(livroDTO), new String(first.getJson(), "UTF-8"));
+        assertNull(first.getGzip());
+    }
+
+    //Invalidar ou receber outra ETag codifica de novo
+    @Test
+    public void whenInvalidatedOrETagChanges_EncodeAgain() {
+        cache.get(livroDTO.getId(), "e1", this::load);
+        cache.invalidate(livroDTO.getId());
+        cache.get(livroDTO.getId(), "e1", this::load);
+        cache.get(livroDTO.getId(), "e2", this::load);
+        cache.get(livroDTO.getId(), null, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    //Com gzip ligado a versao comprimida descomprime no mesmo JSON
+    @Test
+    public void whenGzipEnabled_KeepCompressedCopy() throws Exception {
+        properties.getResponse().setGzip(true);
+        properties.getResponse().setGzipMinSize(DataSize.ofBytes(0));
+        cache = new LivroResponseCache(properties, objectMapper, new SimpleMeterRegistry());
+
+        var encoded = cache.get(livroDTO.getId(), null, this::load);
+
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(encoded.getGzip()))) {
+            assertEquals(new String(encoded.getJson(), "UTF-8"), new String(in.readAllBytes(), "UTF-8"));
+        }
+    }
+
+    private LivroDTO load(String id) {
+        loads.incrementAndGet();
+        return livroDTO;
+    }
+}
@@ -1,28 +1,54 @@
 package com.api.mongodb;
 
+import com.api.mongodb.cache.LivroCache;
+import com.api.mongodb.cache.LivroResponseCache;
+import com.api.mongodb.cache.QueryResultCache;
+import com.api.mongodb.cache.WriteGeneration;
+import com.api.mongodb.configuration.CachePropertiesConfig;
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.configuration.SearchPropertiesConfig;
+import com.api.mongodb.mappers.SpecializedLivroMapper;
+import com.api.mongodb.metrics.LivroQueryMetrics;
 import com.api.mongodb.models.Livro;
 import com.api.mongodb.models.dto.LivroDTO;
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.exceptions.ObjectNotFoundException;
 import com.api.mongodb.models.filters.LivroFilter;
+import com.api.mongodb.models.filters.LivroProjection;
+import com.api.mongodb.models.pagination.CursorPage;
+import com.api.mongodb.models.pagination.CursorRequest;
+import com.api.mongodb.replica.LivroReplica;
 import com.api.mongodb.repositories.LivroRepository;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.search.LivroTrigramIndex;
 import com.api.mongodb.services.LivroService;
 import com.api.mongodb.util.Constants;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.jupiter.api.Assertions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.runner.RunWith;
+import org.bson.Document;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
-import org.modelmapper.ModelMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -38,7 +64,34 @@ public class LivroServiceTest {
     private LivroRepository livroRepository;
     // Seta Spy para simular um ambiente real
     @Spy
-    protected ModelMapper mapper;
+    protected SpecializedLivroMapper mapper;
+    // Configuracao da busca; o motor padrao (regex) usa a Criteria do LivroCriteria
+    @Spy
+    private SearchPropertiesConfig searchProperties;
+    // Cache de livros desligado: cada teste enxerga todas as chamadas ao repositorio
+    @Spy
+    private LivroCache livroCache = livroCache(false);
+    // Geracao de escrita real, para conferir que as escritas a incrementam
+    @Spy
+    private WriteGeneration writeGeneration;
+    // Cache de paginas desligado pelo mesmo motivo
+    @Spy
+    private QueryResultCache queryResultCache = queryResultCache(false, new WriteGeneration());
+    // Metricas das consultas num registry em memoria
+    @Spy
+    private LivroQueryMetrics queryMetrics = new LivroQueryMetrics(new SimpleMeterRegistry());
+    // Copia em memoria; o mock nunca esta pronta, entao as leituras vao ao repositorio
+    @Mock
+    private LivroReplica replica;
+    // Indice de trigramas; so e consultado com o motor TRIGRAM
+    @Mock
+    private LivroTrigramIndex trigramIndex;
+    // Respostas codificadas do findById; so precisam ser invalidadas nas escritas
+    @Mock
+    private LivroResponseCache responseCache;
+    // Roteamento desligado: as leituras seguem a URI, sem secundarios
+    @Spy
+    private MongoRouting routing = new MongoRouting(new RoutingPropertiesConfig());
 
     // Cria uma instancia de livro
     private static Livro Livro;
@@ -52,6 +105,20 @@ public class LivroServiceTest {
     // Cria uma intancia de Paginacao
     private static PageRequest DEFAULT_PAGEABLE;
 
+    // Cria o cache de livros ligado ou desligado
+    private static LivroCache livroCache(boolean enabled) {
+        var properties = new CachePropertiesConfig();
+        properties.getLivro().setEnabled(enabled);
+        return new LivroCache(properties, new SimpleMeterRegistry());
+    }
+
+    // Cria o cache de paginas ligado ou desligado
+    private static QueryResultCache queryResultCache(boolean enabled, WriteGeneration generation) {
+        var properties = new CachePropertiesConfig();
+        properties.getQuery().setEnabled(enabled);
+        return new QueryResultCache(properties, generation, new SimpleMeterRegistry());
+    }
+
     // Seta antes dos teste um livro e um livro DTO para serem usados como parametro
     @Before
     public void setup() {
@@ -83,10 +150,12 @@ public class LivroServiceTest {
         when(livroRepository.findAll(DEFAULT_PAGEABLE)).thenReturn(new PageImpl<>(List.of(Livro)));
         //Quando find by id retorna um livro ou um nullable.
         when(livroRepository.findById(Livro.getId())).thenReturn(Optional.ofNullable(Livro));
-        //Quando o model mapper for usado retorna um LivroDTO
-        when(mapper.map(Livro, LivroDTO.class)).thenReturn(livroDTO);
+        //Quando o mapper for usado retorna um LivroDTO
+        when(mapper.toDTO(Livro)).thenReturn(livroDTO);
         //Quando salva um livro retorna o Livro
         when(livroRepository.save(Livro)).thenReturn(Livro);
+        //Quando edita um livro sem version o findAndModify retorna o Livro alterado
+        when(livroRepository.modify(eq(Livro.getId()), isNull(), any(Update.class))).thenReturn(Optional.of(Livro));
 
     }
 
@@ -110,18 +179,36 @@ public class LivroServiceTest {
         FILTER.setMin_price(2.0);
         FILTER.setMax_price(6.0);
 
-        when(livroRepository.findByMinAndMaxPrice(DEFAULT_PAGEABLE, FILTER.getMin_price(), FILTER.getMax_price()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of(livroDTO)));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1)).findByMinAndMaxPrice(DEFAULT_PAGEABLE, FILTER.getMin_price(), FILTER.getMax_price());
+        assertEquals(new Document("price", new Document("$gt", 2.0).append("$lt", 6.0)), searchedCriteria());
 
         Assert.assertNotNull(products);
         assertEquals(1, products.getTotalElements());
         assertEquals(livroDTO, products.getContent().get(0));
 
     }
+    //A consulta e medida no timer livro.query com o metodo do repositorio e a forma do filtro
+    @Test
+    public void whenSearchByFilter_RecordQueryTimerTaggedByShape() {
+        var registry = new SimpleMeterRegistry();
+        var service = new LivroService(mapper, livroRepository, searchProperties, livroCache, queryResultCache, writeGeneration, new LivroQueryMetrics(registry), replica, trigramIndex, responseCache, routing);
+        FILTER.setMin_price(2.0);
+        FILTER.setMax_price(6.0);
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of()))).thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        service.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        var timer = registry.find(LivroQueryMetrics.METRIC_NAME)
+                .tag("method", "findProjected")
+                .tag("shape", "min_price+max_price")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
     //Retorna todos os livros com filtro com sucesso
     @Test
     public void whenSearchByFilter_And_FindByNameOrDescription_ReturnLivroPage() {
@@ -129,12 +216,12 @@ public class LivroServiceTest {
         FILTER.setMin_price(null);
         FILTER.setMax_price(null);
 
-        when(livroRepository.findByNameOrDescriptionOrGenre(DEFAULT_PAGEABLE, FILTER.getQuery()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of(livroDTO)));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1)).findByNameOrDescriptionOrGenre(DEFAULT_PAGEABLE, FILTER.getQuery());
+        assertEquals(Set.of("$or"), searchedCriteria().keySet());
 
         Assert.assertNotNull(products);
         assertEquals(1, products.getTotalElements());
@@ -148,19 +235,136 @@ public class LivroServiceTest {
         FILTER.setMin_price(2.0);
         FILTER.setMax_price(6.0);
 
-        when(livroRepository.findByNameOrDescriptionAndMinMaxPrice(DEFAULT_PAGEABLE, FILTER.getQuery(), FILTER.getMin_price(), FILTER.getMax_price()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of(livroDTO)));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1))
-                .findByNameOrDescriptionAndMinMaxPrice(DEFAULT_PAGEABLE, FILTER.getQuery(), FILTER.getMin_price(), FILTER.getMax_price());
+        assertEquals(Set.of("price", "$or"), searchedCriteria().keySet());
 
         assertNotNull(products);
         assertEquals(1, products.getTotalElements());
         assertEquals(livroDTO, products.getContent().get(0));
 
     }
+    //Com o motor TEXT a busca por query usa o indice de texto, com ou sem faixa de preco
+    @Test
+    public void whenSearchByFilter_And_TextEngine_ReturnLivroPage() {
+        FILTER.setQuery("broxura");
+        FILTER.setMin_price(2.0);
+        FILTER.setMax_price(null);
+        searchProperties.setEngine(SearchPropertiesConfig.SearchEngine.TEXT);
+
+        when(livroRepository.findByText(eq(DEFAULT_PAGEABLE), eq(FILTER.getQuery()), any(Criteria.class), eq(Set.of())))
+                .thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        var criteria = ArgumentCaptor.forClass(Criteria.class);
+        verify(livroRepository, times(1)).findByText(eq(DEFAULT_PAGEABLE), eq(FILTER.getQuery()), criteria.capture(), eq(Set.of()));
+        verify(livroRepository, never()).findProjected(any(), any(), any());
+        assertEquals(new Document("price", new Document("$gt", 2.0)), criteria.getValue().getCriteriaObject());
+
+        assertEquals(1, products.getTotalElements());
+        assertEquals(livroDTO, products.getContent().get(0));
+    }
+    //Retorna a pagina por cursor mapeada e com o token da proxima pagina
+    @Test
+    public void whenFindAllByCursorReturnCursorPage() {
+        var request = new CursorRequest("price", Sort.Direction.ASC, 1, null);
+
+        when(livroRepository.findByCursor(null, request)).thenReturn(new CursorPage<>(List.of(Livro), 1, "token"));
+
+        var products = livroService.findAllByCursor(request);
+
+        verify(livroRepository, times(1)).findByCursor(null, request);
+
+        assertEquals(1, products.getContent().size());
+        assertEquals(livroDTO, products.getContent().get(0));
+        assertEquals("token", products.getNext());
+    }
+    //Qualquer combinacao de filtros vira uma Criteria, como so o preco minimo
+    @Test
+    public void whenSearchByCursor_And_OnlyMinPrice_FilterByMinPrice() {
+        FILTER.setQuery(null);
+        FILTER.setMin_price(2.0);
+        FILTER.setMax_price(null);
+        var request = new CursorRequest("id", Sort.Direction.ASC, 10, null);
+        when(livroRepository.findByCursor(any(Criteria.class), eq(request))).thenReturn(new CursorPage<>(List.of(), 10, null));
+
+        var products = livroService.searchByCursor(request, FILTER);
+
+        var criteria = ArgumentCaptor.forClass(Criteria.class);
+        verify(livroRepository, times(1)).findByCursor(criteria.capture(), eq(request));
+        assertEquals(new Document("price", new Document("$gt", 2.0)), criteria.getValue().getCriteriaObject());
+
+        assertEquals(0, products.getContent().size());
+        Assert.assertNull(products.getNext());
+    }
+    //Genero, faixa de criacao e preco inclusivo entram na mesma consulta
+    @Test
+    public void whenSearchByFilter_And_GenreCreatedAtAndInclusivePrice_FilterAllFields() {
+        var from = LocalDateTime.parse("2022-08-01T00:00:00");
+        FILTER = LivroFilter.builder().genre("Terror").created_from(from).max_price(6.0).price_inclusive(true).build();
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
+                .thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        assertEquals(new Document("genre", "Terror")
+                .append("price", new Document("$lte", 6.0))
+                .append("createdAt", new Document("$gte", from)), searchedCriteria());
+        assertEquals(1, products.getTotalElements());
+    }
+    //Sem nenhum filtro a busca devolve todos os livros
+    @Test
+    public void whenSearchByFilter_And_EmptyFilter_SearchAll() {
+        when(livroRepository.findProjected(null, DEFAULT_PAGEABLE, Set.of())).thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        verify(livroRepository, times(1)).findProjected(null, DEFAULT_PAGEABLE, Set.of());
+        assertEquals(1, products.getTotalElements());
+    }
+    //Retorna os livros sem count e com o total estimado quando pedido
+    @Test
+    public void whenFindAllSliceReturnSlicePage() {
+
+        when(livroRepository.findSlice(null, DEFAULT_PAGEABLE)).thenReturn(new SliceImpl<>(List.of(Livro), DEFAULT_PAGEABLE, true));
+        when(livroRepository.estimateCount(null)).thenReturn(42L);
+
+        var products = livroService.findAllSlice(DEFAULT_PAGEABLE, true);
+
+        verify(livroRepository, never()).findAll(DEFAULT_PAGEABLE);
+
+        Assert.assertTrue(products.isHasNext());
+        assertEquals(livroDTO, products.getContent().get(0));
+        assertEquals(Long.valueOf(42L), products.getEstimatedTotal());
+    }
+    //Com campos pedidos a listagem usa a consulta com projecao
+    @Test
+    public void whenFindAllWithFieldsReturnProjectedPage() {
+        var fields = LivroProjection.parse("id, name,price");
+        var sparse = LivroDTO.builder().id(livroDTO.getId()).name(livroDTO.getName()).price(livroDTO.getPrice()).build();
+
+        when(livroRepository.findProjected(null, DEFAULT_PAGEABLE, fields)).thenReturn(new PageImpl<>(List.of(sparse)));
+
+        var products = livroService.findAll(DEFAULT_PAGEABLE, fields);
+
+        verify(livroRepository, never()).findAll(DEFAULT_PAGEABLE);
+
+        assertEquals(Set.of("id", "name", "price"), fields);
+        assertEquals(sparse, products.getContent().get(0));
+        Assert.assertNull(products.getContent().get(0).getDescription());
+    }
+    //Retorna uma exception quando um campo nao projetavel e pedido
+    @Test
+    public void whenFieldsHaveUnknownField_ExpectedException() {
+        var exception = Assertions.assertThrows(FieldValidationException.class, () -> LivroProjection.parse("name,author"));
+
+        assertEquals("fields", exception.getFieldName());
+        assertEquals(Constants.MESSAGE_INVALID_PROJECTION + "author", exception.getMessage());
+    }
     //Retorna o livro com o id passado com sucesso
     @Test
     public void whenFindByIdReturnLivro() {
@@ -175,11 +379,56 @@ public class LivroServiceTest {
        assertEquals(product.getGenre(),"Terror");
        assertEquals(Optional.ofNullable(product.getPrice()), Optional.of(1.2));
     }
+    //Com o cache ligado a segunda leitura do mesmo id nao vai ao repositorio, e a exclusao invalida o cache
+    @Test
+    public void whenFindByIdTwice_And_CacheEnabled_RepositoryIsCalledOnce() {
+        var service = new LivroService(mapper, livroRepository, searchProperties, livroCache(true), queryResultCache, writeGeneration, queryMetrics, replica, trigramIndex, responseCache, routing);
+        when(livroRepository.remove(livroDTO.getId())).thenReturn(true);
+
+        service.findById(livroDTO.getId());
+        service.findById(livroDTO.getId());
+
+        verify(livroRepository, times(1)).findById(livroDTO.getId());
+
+        service.delete(livroDTO.getId());
+        service.findById(livroDTO.getId());
+
+        verify(livroRepository, times(2)).findById(livroDTO.getId());
+    }
+    //Com o cache de paginas ligado a mesma busca vai ao repositorio uma vez, ate a proxima escrita
+    @Test
+    public void whenFindAllTwice_And_QueryCacheEnabled_RepositoryIsCalledUntilNextWrite() {
+        var generation = new WriteGeneration();
+        var service = new LivroService(mapper, livroRepository, searchProperties, livroCache, queryResultCache(true, generation), generation, queryMetrics, replica, trigramIndex, responseCache, routing);
+
+        service.findAll(DEFAULT_PAGEABLE);
+        service.findAll(DEFAULT_PAGEABLE);
+
+        verify(livroRepository, times(1)).findAll(DEFAULT_PAGEABLE);
+
+        service.update(livroDTO.getId(), livroDTO);
+        var products = service.findAll(DEFAULT_PAGEABLE);
+
+        verify(livroRepository, times(2)).findAll(DEFAULT_PAGEABLE);
+        assertEquals(1, products.getTotalElements());
+    }
+    //Cliente que escreveu ha pouco le do primario e nao recebe a pagina do cache, que pode ter vindo de um secundario atrasado
+    @Test
+    public void whenPinnedToPrimary_And_QueryCacheEnabled_RepositoryIsCalledEveryTime() {
+        var generation = new WriteGeneration();
+        var service = new LivroService(mapper, livroRepository, searchProperties, livroCache, queryResultCache(true, generation), generation, queryMetrics, replica, trigramIndex, responseCache, routing);
+        doReturn(true).when(routing).isPinned();
+
+        service.findAll(DEFAULT_PAGEABLE);
+        service.findAll(DEFAULT_PAGEABLE);
+
+        verify(livroRepository, times(2)).findAll(DEFAULT_PAGEABLE);
+    }
     //Retorna o livro Criado com sucesso
     @Test
     public void whenCreateReturnLivro() {
 
-        when(mapper.map(livroDTO, Livro.class)).thenReturn(Livro);
+        when(mapper.toEntity(livroDTO)).thenReturn(Livro);
 
         var product = livroService.create(livroDTO);
 
@@ -192,13 +441,28 @@ public class LivroServiceTest {
         assertEquals(product.getGenre(),"Terror");
         assertEquals(Optional.ofNullable(product.getPrice()), Optional.of(1.2));
     }
+    //Um POST com id e version (o corpo de um GET reaproveitado) cria um livro novo em vez de virar um update versionado
+    @Test
+    public void whenCreateWithIdAndVersion_SaveAsNewLivro() {
+        livroDTO.setVersion(0L);
+        when(livroRepository.save(any(Livro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        livroService.create(livroDTO);
+
+        var saved = ArgumentCaptor.forClass(Livro.class);
+        verify(livroRepository, times(1)).save(saved.capture());
+        Assert.assertNull(saved.getValue().getId());
+        Assert.assertNull(saved.getValue().getVersion());
+        assertEquals("Contos Fantasmas", saved.getValue().getName());
+    }
     //Retorna o livro quando atualizado com sucesso
     @Test
     public void whenUpdateReturnLivro() {
 
         var product = livroService.update(livroDTO.getId(), livroDTO);
 
-        verify(livroRepository, times(1)).save(Livro);
+        verify(livroRepository, times(1)).modify(eq(livroDTO.getId()), isNull(), any(Update.class));
+        verify(livroRepository, never()).findById(livroDTO.getId());
 
         assertEquals(product.getId(), "62eff2aa4e6fc45b97ab3d84");
         assertEquals(product.getName(), "Contos Fantasmas");
@@ -207,18 +471,83 @@ public class LivroServiceTest {
         assertEquals(Optional.ofNullable(product.getPrice()), Optional.of(1.2));
 
     }
+    //O PUT manda todos os campos editaveis, inclusive o genero
+    @Test
+    public void whenUpdate_SetAllEditableFieldsIncludingGenre() {
+        var update = ArgumentCaptor.forClass(Update.class);
+
+        livroService.update(livroDTO.getId(), livroDTO);
+
+        verify(livroRepository).modify(eq(livroDTO.getId()), isNull(), update.capture());
+        var set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("Terror", set.get("genre"));
+        assertEquals("Contos Fantasmas", set.get("name"));
+    }
+    //O PATCH manda no $set so os campos preenchidos, alem do updatedAt
+    @Test
+    public void whenPatch_SetOnlyProvidedFields() {
+        var update = ArgumentCaptor.forClass(Update.class);
+
+        livroService.patch(livroDTO.getId(), LivroDTO.builder().price(9.9).build());
+
+        verify(livroRepository).modify(eq(livroDTO.getId()), isNull(), update.capture());
+        var set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(Set.of("price", "updatedAt"), set.keySet());
+    }
+    //Com version desatualizada e o livro existente a edicao falha com conflito em vez de sobrescrever
+    @Test
+    public void whenPatchWithStaleVersion_ExpectedConflict() {
+        when(livroRepository.modify(eq(livroDTO.getId()), eq(3L), any(Update.class))).thenReturn(Optional.empty());
+        when(livroRepository.idExists(livroDTO.getId())).thenReturn(true);
+
+        Assertions.assertThrows(OptimisticLockingFailureException.class, () ->
+                livroService.patch(livroDTO.getId(), LivroDTO.builder().name("Contos").version(3L).build()));
+
+        assertEquals(0, writeGeneration.current());
+    }
+    //Sem version e sem documento casado o livro nao existe
+    @Test
+    public void whenPatchMissingLivro_ExpectedNotFound() {
+        when(livroRepository.modify(eq("inexistente"), isNull(), any(Update.class))).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(ObjectNotFoundException.class, () ->
+                livroService.patch("inexistente", LivroDTO.builder().name("Contos").build()));
+    }
     //Nao retorna nada quando excluido com sucesso
     @Test
     public void whenDeleteById_DoNotReturnContent() {
+        when(livroRepository.remove(livroDTO.getId())).thenReturn(true);
+
         livroService.delete(livroDTO.getId());
 
-        verify(livroRepository, times(1)).deleteById(livroDTO.getId());
+        verify(livroRepository, times(1)).remove(livroDTO.getId());
+        verify(livroRepository, never()).findById(livroDTO.getId());
+        assertEquals(1, writeGeneration.current());
+    }
+    //Quando nenhum documento e excluido o livro nao existia
+    @Test
+    public void whenDeleteMissingLivro_ExpectedNotFound() {
+        when(livroRepository.remove("inexistente")).thenReturn(false);
+
+        Assertions.assertThrows(ObjectNotFoundException.class, () -> livroService.delete("inexistente"));
+
+        assertEquals(0, writeGeneration.current());
+    }
+    //A existencia e respondida sem carregar o documento
+    @Test
+    public void whenExists_DoNotLoadLivro() {
+        when(livroRepository.idExists(livroDTO.getId())).thenReturn(true);
+
+        Assert.assertTrue(livroService.exists(livroDTO.getId()));
+        Assert.assertFalse(livroService.exists("inexistente"));
+
+        verify(livroRepository, never()).findById(livroDTO.getId());
     }
     //Retorna uma exception quando Criado com erro
     @Test
     public void whenCreateadExpectedException(){
 
-        when(mapper.map(livroDTO, Livro.class)).thenReturn(Livro);
+        when(mapper.toEntity(livroDTO)).thenReturn(Livro);
 
         when(livroRepository.save(Livro)).thenThrow(new RuntimeException(Constants.MESSAGE_INVALID_REQUEST));
 
@@ -242,7 +571,7 @@ public class LivroServiceTest {
 
         assertEquals(Constants.ERROR_NOT_FOUND, exception.getMessage());
 
-        verify(livroRepository, times(2)).save(Livro);
+        verify(livroRepository, times(2)).modify(eq(livroDTO.getId()), isNull(), any(Update.class));
     }
     //Retorna uma exception quando nao encontrado
     @Test
@@ -276,12 +605,12 @@ public class LivroServiceTest {
         FILTER.setMin_price(2.0);
         FILTER.setMax_price(6.0);
 
-        when(livroRepository.findByMinAndMaxPrice(DEFAULT_PAGEABLE, FILTER.getMin_price(), FILTER.getMax_price()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of()));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1)).findByMinAndMaxPrice(DEFAULT_PAGEABLE, FILTER.getMin_price(), FILTER.getMax_price());
+        assertEquals(Set.of("price"), searchedCriteria().keySet());
 
         assertEquals(0, products.getTotalElements());
 
@@ -293,12 +622,12 @@ public class LivroServiceTest {
         FILTER.setMin_price(null);
         FILTER.setMax_price(null);
 
-        when(livroRepository.findByNameOrDescriptionOrGenre(DEFAULT_PAGEABLE, FILTER.getQuery()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of()));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1)).findByNameOrDescriptionOrGenre(DEFAULT_PAGEABLE, FILTER.getQuery());
+        assertEquals(Set.of("$or"), searchedCriteria().keySet());
 
         assertEquals(0, products.getTotalElements());
 
@@ -310,13 +639,12 @@ public class LivroServiceTest {
         FILTER.setMin_price(2.0);
         FILTER.setMax_price(6.0);
 
-        when(livroRepository.findByNameOrDescriptionAndMinMaxPrice(DEFAULT_PAGEABLE, FILTER.getQuery(), FILTER.getMin_price(), FILTER.getMax_price()))
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
                 .thenReturn(new PageImpl<>(List.of()));
 
         var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
 
-        verify(livroRepository, times(1))
-                .findByNameOrDescriptionAndMinMaxPrice(DEFAULT_PAGEABLE, FILTER.getQuery(), FILTER.getMin_price(), FILTER.getMax_price());
+        assertEquals(Set.of("price", "$or"), searchedCriteria().keySet());
 
         assertEquals(0, products.getTotalElements());
 
@@ -333,4 +661,122 @@ public class LivroServiceTest {
         verify(livroRepository, times(1)).findById(livroDTO.getId());
         assertEquals(Constants.ERROR_NOT_FOUND, exception.getMessage());
     }
-}
\ No newline at end of file
+
+    //Com a copia em memoria pronta a listagem e a busca nao vao ao Mongo
+    @Test
+    public void whenReplicaReady_ReadFromReplica() {
+        FILTER.setGenre("Terror");
+        when(replica.isReady()).thenReturn(true);
+        when(replica.search(null, DEFAULT_PAGEABLE)).thenReturn(Optional.of(new PageImpl<>(List.of(Livro))));
+        when(replica.search(FILTER, DEFAULT_PAGEABLE)).thenReturn(Optional.of(new PageImpl<>(List.of(Livro))));
+        when(replica.findById(Livro.getId())).thenReturn(Optional.of(Livro));
+
+        assertEquals(livroDTO, livroService.findAll(DEFAULT_PAGEABLE).getContent().get(0));
+        assertEquals(livroDTO, livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER).getContent().get(0));
+        assertEquals(livroDTO, livroService.findById(Livro.getId()));
+
+        verify(livroRepository, never()).findAll(any(Pageable.class));
+        verify(livroRepository, never()).findProjected(any(), any(), any());
+        verify(livroRepository, never()).findById(any());
+    }
+    //Ordenacao que a copia nao atende e busca com projecao continuam no Mongo
+    @Test
+    public void whenReplicaCannotAnswer_FallBackToMongo() {
+        when(replica.isReady()).thenReturn(true);
+        when(replica.search(null, DEFAULT_PAGEABLE)).thenReturn(Optional.empty());
+        when(livroRepository.findProjected(null, DEFAULT_PAGEABLE, Set.of("name"))).thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        assertEquals(1, livroService.findAll(DEFAULT_PAGEABLE).getTotalElements());
+        assertEquals(1, livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER, Set.of("name")).getTotalElements());
+
+        verify(livroRepository, times(1)).findAll(DEFAULT_PAGEABLE);
+        verify(replica, never()).search(FILTER, DEFAULT_PAGEABLE);
+    }
+    //As escritas desta instancia entram na copia sem esperar o change stream
+    @Test
+    public void whenWrite_UpdateReplica() {
+        // o create limpa o id da entidade devolvida pelo mapper, entao o id e guardado antes
+        var id = Livro.getId();
+        when(mapper.toEntity(livroDTO)).thenReturn(Livro);
+        when(livroRepository.remove(id)).thenReturn(true);
+
+        livroService.create(livroDTO);
+        livroService.delete(id);
+
+        verify(replica, times(1)).upsert(Livro);
+        verify(replica, times(1)).remove(id);
+    }
+    //Com o motor TRIGRAM a regex so confere os ids candidatos do indice
+    @Test
+    public void whenTrigramEngine_SearchOnlyCandidateIds() {
+        FILTER.setQuery("fantas");
+        searchProperties.setEngine(SearchPropertiesConfig.SearchEngine.TRIGRAM);
+        when(trigramIndex.candidates("fantas")).thenReturn(Optional.of(List.of(Livro.getId())));
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
+                .thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        var products = livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        var criteria = searchedCriteria();
+        assertEquals(Set.of("$or", "id"), criteria.keySet());
+        assertEquals(new Document("$in", List.of(Livro.getId())), criteria.get("id"));
+        assertEquals(livroDTO, products.getContent().get(0));
+    }
+    //Quando o indice nao responde (nao pronto, regex ou candidatos demais) a busca segue so pela regex
+    @Test
+    public void whenTrigramIndexCannotAnswer_FallBackToRegex() {
+        FILTER.setQuery("fan.*");
+        searchProperties.setEngine(SearchPropertiesConfig.SearchEngine.TRIGRAM);
+        when(trigramIndex.candidates("fan.*")).thenReturn(Optional.empty());
+        when(livroRepository.findProjected(any(Criteria.class), eq(DEFAULT_PAGEABLE), eq(Set.of())))
+                .thenReturn(new PageImpl<>(List.of(livroDTO)));
+
+        livroService.searchByFilter(DEFAULT_PAGEABLE, FILTER);
+
+        assertEquals(Set.of("$or"), searchedCriteria().keySet());
+    }
+    //As escritas entram no indice de trigramas na hora
+    @Test
+    public void whenWrite_UpdateTrigramIndex() {
+        // o create limpa o id da entidade devolvida pelo mapper, entao o id e guardado antes
+        var id = Livro.getId();
+        when(mapper.toEntity(livroDTO)).thenReturn(Livro);
+        when(livroRepository.remove(id)).thenReturn(true);
+
+        livroService.create(livroDTO);
+        livroService.update(id, livroDTO);
+        livroService.delete(id);
+
+        verify(trigramIndex, times(2)).index(Livro);
+        verify(trigramIndex, times(1)).remove(id);
+    }
+    //Editar e excluir descartam a resposta codificada do livro
+    @Test
+    public void whenUpdateOrDelete_InvalidateEncodedResponse() {
+        when(livroRepository.remove(Livro.getId())).thenReturn(true);
+
+        livroService.update(Livro.getId(), livroDTO);
+        livroService.delete(Livro.getId());
+
+        verify(responseCache, times(2)).invalidate(Livro.getId());
+    }
+    //A versao para a ETag vem da copia em memoria quando o livro esta nela e so no resto vai ao Mongo com projecao
+    @Test
+    public void whenFindVersion_ReadProjectionOnlyWhenNotInMemory() {
+        var version = Livro.builder().id(Livro.getId()).version(3L).build();
+        when(replica.findById(Livro.getId())).thenReturn(Optional.of(Livro));
+        when(livroRepository.findVersionById("outro")).thenReturn(Optional.of(version));
+
+        assertEquals(Livro, livroService.findVersion(Livro.getId()).get());
+        assertEquals(version, livroService.findVersion("outro").get());
+
+        verify(livroRepository, never()).findVersionById(Livro.getId());
+        verify(livroRepository, never()).findById(any());
+    }
+    //Criteria usada na unica busca pelo findProjected
+    private Document searchedCriteria() {
+        var criteria = ArgumentCaptor.forClass(Criteria.class);
+        verify(livroRepository, times(1)).findProjected(criteria.capture(), eq(DEFAULT_PAGEABLE), eq(Set.of()));
+        return criteria.getValue().getCriteriaObject();
+    }
+}
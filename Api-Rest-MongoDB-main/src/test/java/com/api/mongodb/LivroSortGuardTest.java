@@ -0,0 +1,57 @@
+package com.api.mongodb;
+
+import com.api.mongodb.exceptions.FieldValidationException;
+import com.api.mongodb.repositories.LivroIndexes;
+import com.api.mongodb.repositories.LivroSortGuard;
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LivroSortGuardTest {
+
+    private final LivroSortGuard sortGuard = new LivroSortGuard(mappingContext());
+
+    // Mesmo contexto de mapeamento do Boot, com as conversoes padrao (datas como tipos simples)
+    private static MongoMappingContext mappingContext() {
+        var mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+
+    //Os campos aceitos sao o id e os que abrem um indice declarado no Livro
+    @Test
+    public void whenResolveIndexes_SortableFieldsAreIndexPrefixes() {
+        assertEquals(Set.of("id", "price", "genre", "createdAt"), sortGuard.getSortableFields());
+        assertEquals("price", sortGuard.check("price"));
+    }
+
+    //Campo sem indice e recusado no orderBy
+    @Test
+    public void whenOrderByFieldWithoutIndex_ExpectedFieldValidationException() {
+        try {
+            sortGuard.check("description");
+            fail();
+        } catch (FieldValidationException e) {
+            assertEquals("orderBy", e.getFieldName());
+        }
+    }
+
+    //Indice existente com a direcao gravada como 1.0 e o mesmo; ordem diferente das chaves nao e
+    @Test
+    public void whenCompareIndexKeys_IgnoreNumberTypeButNotOrder() {
+        var declared = new Document("price", 1).append("_id", 1);
+
+        assertTrue(LivroIndexes.sameKeys(declared, new Document("price", 1.0).append("_id", 1L)));
+        assertFalse(LivroIndexes.sameKeys(declared, new Document("_id", 1).append("price", 1)));
+        assertFalse(LivroIndexes.sameKeys(declared, new Document("price", -1).append("_id", 1)));
+    }
+}
@@ -0,0 +1,91 @@
+package com.api.mongodb;
+
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.routing.MongoRouting;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MongoRoutingTest {
+
+    private RoutingPropertiesConfig properties;
+
+    // Seta antes dos testes o roteamento ligado com os valores padrao
+    @Before
+    public void setup() {
+        properties = new RoutingPropertiesConfig();
+        properties.setEnabled(true);
+    }
+
+    //Dentro de secondary a leitura vai aos secundarios com o maxStaleness; fora dele segue a URI
+    @Test
+    public void whenSecondary_ApplyReadPreferenceWithMaxStaleness() {
+        var routing = new MongoRouting(properties);
+
+        assertEquals(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS), routing.secondary(routing::currentReadPreference));
+        assertNull(routing.currentReadPreference());
+    }
+
+    //Modo primary ou maxStaleness zero nao levam o limite, que o driver recusaria
+    @Test
+    public void whenPrimaryOrNoMaxStaleness_ApplyModeOnly() {
+        properties.setReadPreference("nearest");
+        properties.setMaxStaleness(Duration.ZERO);
+        var routing = new MongoRouting(properties);
+        assertEquals(ReadPreference.nearest(), routing.secondary(routing::currentReadPreference));
+
+        properties.setReadPreference("primary");
+        properties.setMaxStaleness(Duration.ofSeconds(90));
+        routing = new MongoRouting(properties);
+        assertEquals(ReadPreference.primary(), routing.secondary(routing::currentReadPreference));
+    }
+
+    //Dentro de relaxed a escrita usa o writeConcern do import, inclusive com uma leitura roteada no meio
+    @Test
+    public void whenRelaxed_ApplyImportWriteConcern() {
+        var routing = new MongoRouting(properties);
+
+        var writeConcern = routing.relaxed(() -> {
+            assertEquals(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS), routing.secondary(routing::currentReadPreference));
+            assertNull(routing.currentReadPreference());
+            return routing.currentWriteConcern();
+        });
+
+        assertEquals(WriteConcern.W1, writeConcern);
+        assertNull(routing.currentWriteConcern());
+    }
+
+    //Leitura com pinned (cliente que escreveu ha pouco) fica no primario
+    @Test
+    public void whenPinned_KeepUriReadPreference() {
+        var routing = new MongoRouting(properties);
+
+        assertNull(routing.secondary(true, routing::currentReadPreference));
+    }
+
+    //Com o roteamento desligado nada muda na colecao
+    @Test
+    public void whenDisabled_KeepUriSettings() {
+        properties.setEnabled(false);
+        var routing = new MongoRouting(properties);
+
+        assertNull(routing.secondary(routing::currentReadPreference));
+        assertNull(routing.relaxed(routing::currentWriteConcern));
+    }
+
+    //WriteConcern desconhecido falha na subida
+    @Test
+    public void whenUnknownWriteConcern_ThrowIllegalArgumentException() {
+        properties.setImportWriteConcern("w9");
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MongoRouting(properties));
+    }
+}
@@ -0,0 +1,121 @@
+package com.api.mongodb;
+
+import com.api.mongodb.configuration.RoutingPropertiesConfig;
+import com.api.mongodb.routing.MongoRouting;
+import com.api.mongodb.routing.ReadYourWritesFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class ReadYourWritesFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain chain;
+
+    private RoutingPropertiesConfig properties;
+
+    private MongoRouting routing;
+
+    private ReadYourWritesFilter filter;
+
+    // Se a requisicao estava fixada no primario quando chegou na chain
+    private final AtomicBoolean pinnedInChain = new AtomicBoolean();
+
+    // Seta antes dos testes o filtro com o roteamento ligado e uma chain que guarda se a requisicao ficou no primario
+    @Before
+    public void setup() throws Exception {
+        properties = new RoutingPropertiesConfig();
+        properties.setEnabled(true);
+        routing = new MongoRouting(properties);
+        filter = new ReadYourWritesFilter(properties, routing);
+        when(request.getContextPath()).thenReturn("/v1/api");
+        doAnswer(invocation -> {
+            pinnedInChain.set(routing.isPinned());
+            return null;
+        }).when(chain).doFilter(request, response);
+    }
+
+    //Uma escrita devolve o cookie com o fim da janela e ja roda fixada no primario
+    @Test
+    public void whenWrite_SetCookieAndPinToPrimary() throws Exception {
+        when(request.getMethod()).thenReturn("POST");
+        var before = System.currentTimeMillis();
+
+        filter.doFilter(request, response, chain);
+
+        var cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(response, times(1)).addCookie(cookie.capture());
+        assertEquals(properties.getCookieName(), cookie.getValue().getName());
+        assertTrue(Long.parseLong(cookie.getValue().getValue()) >= before + properties.getReadYourWrites().toMillis());
+        assertEquals(100, cookie.getValue().getMaxAge());
+        assertEquals("/v1/api", cookie.getValue().getPath());
+        assertTrue(pinnedInChain.get());
+        assertFalse(routing.isPinned());
+    }
+
+    //Leitura com o cookie dentro da janela fica no primario, sem renovar o cookie
+    @Test
+    public void whenReadWithValidCookie_PinToPrimary() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getCookies()).thenReturn(new Cookie[]{
+                new Cookie(properties.getCookieName(), String.valueOf(System.currentTimeMillis() + 60_000))});
+
+        filter.doFilter(request, response, chain);
+
+        verify(response, never()).addCookie(any());
+        assertTrue(pinnedInChain.get());
+    }
+
+    //Leitura sem cookie, com o cookie vencido ou invalido vai aos secundarios
+    @Test
+    public void whenReadWithoutValidCookie_RouteToSecondaries() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+
+        filter.doFilter(request, response, chain);
+        assertFalse(pinnedInChain.get());
+
+        when(request.getCookies()).thenReturn(new Cookie[]{
+                new Cookie(properties.getCookieName(), String.valueOf(System.currentTimeMillis() - 1))});
+        filter.doFilter(request, response, chain);
+        assertFalse(pinnedInChain.get());
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie(properties.getCookieName(), "x")});
+        filter.doFilter(request, response, chain);
+        assertFalse(pinnedInChain.get());
+    }
+
+    //Com o roteamento desligado o filtro nao faz nada
+    @Test
+    public void whenRoutingDisabled_SkipFilter() throws Exception {
+        properties.setEnabled(false);
+        routing = new MongoRouting(properties);
+        filter = new ReadYourWritesFilter(properties, routing);
+        when(request.getMethod()).thenReturn("DELETE");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response, never()).addCookie(any());
+        verify(chain, times(1)).doFilter(request, response);
+    }
+}
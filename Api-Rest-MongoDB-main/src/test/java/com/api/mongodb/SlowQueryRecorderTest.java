@@ -0,0 +1,79 @@
+package com.api.mongodb;
+
+import com.api.mongodb.configuration.SlowQueryPropertiesConfig;
+import com.api.mongodb.metrics.SlowQueryRecorder;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SlowQueryRecorderTest {
+
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private SlowQueryRecorder recorder;
+
+    private int requestId;
+
+    // Threshold de 100 ms, buffer de 2 consultas e sem explain (nao ha Mongo no teste)
+    @Before
+    public void setup() {
+        var properties = new SlowQueryPropertiesConfig();
+        properties.setThreshold(Duration.ofMillis(100));
+        properties.setCapacity(2);
+        properties.setExplain(false);
+        recorder = new SlowQueryRecorder(properties, null);
+    }
+
+    //So o find acima do threshold e registrado, com filtro, sort, skip e limit do comando
+    @Test
+    public void whenFindIsSlow_RecordFilterSortSkipAndLimit() {
+        find("{find: 'products', filter: {price: {$gt: 1.0}}, sort: {name: 1}, skip: 7200, limit: 24}", 150);
+        find("{find: 'products', filter: {}}", 5);
+
+        var slowQueries = recorder.recent();
+
+        assertEquals(1, slowQueries.size());
+        var slowQuery = slowQueries.get(0);
+        assertEquals("compass_db", slowQuery.getDatabase());
+        assertEquals("products", slowQuery.getCollection());
+        assertEquals("find", slowQuery.getCommand());
+        assertTrue(slowQuery.getFilter().contains("$gt"));
+        assertEquals(Long.valueOf(7200), slowQuery.getSkip());
+        assertEquals(Long.valueOf(24), slowQuery.getLimit());
+        assertEquals(150, slowQuery.getDurationMillis());
+        assertNull(slowQuery.getPlan());
+    }
+
+    //O buffer guarda so as mais recentes, da mais nova para a mais antiga
+    @Test
+    public void whenBufferIsFull_DropOldest() {
+        find("{find: 'products', skip: 1}", 200);
+        find("{find: 'products', skip: 2}", 200);
+        find("{find: 'products', skip: 3}", 200);
+
+        var slowQueries = recorder.recent();
+
+        assertEquals(2, slowQueries.size());
+        assertEquals(Long.valueOf(3), slowQueries.get(0).getSkip());
+        assertEquals(Long.valueOf(2), slowQueries.get(1).getSkip());
+    }
+
+    private void find(String command, long millis) {
+        var id = ++requestId;
+        recorder.commandStarted(new CommandStartedEvent(id, CONNECTION, "compass_db", "find", BsonDocument.parse(command)));
+        recorder.commandSucceeded(new CommandSucceededEvent(id, CONNECTION, "find", new BsonDocument(), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+}
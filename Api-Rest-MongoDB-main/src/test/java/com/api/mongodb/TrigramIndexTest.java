@@ -0,0 +1,80 @@
+package com.api.mongodb;
+
+import com.api.mongodb.search.TrigramIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    // Seta antes dos testes um indice de nome, descricao e genero com tres livros
+    @Before
+    public void setup() {
+        index = new TrigramIndex(3);
+        index.put("a1", "Contos Fantasmas", "Livro de terror", "Terror");
+        index.put("a2", "Casa Assombrada", "Fantasmas na casa", "Terror");
+        index.put("a3", "Amor de Verao", null, "Romance");
+    }
+
+    //Um trecho do meio da palavra casa sem diferenciar maiusculas, em qualquer um dos campos
+    @Test
+    public void whenFragment_ReturnDocumentsWithAllTrigrams() {
+        assertEquals(List.of("a1", "a2"), candidates("TERR"));
+        assertEquals(List.of("a1", "a2"), candidates("antasma"));
+        assertEquals(List.of("a3"), candidates("mor de v"));
+        assertEquals(List.of(), candidates("drama"));
+    }
+
+    //Os trigramas precisam estar no mesmo campo: nome e genero juntos nao formam o trecho
+    @Test
+    public void whenTrigramsInDifferentFields_DoNotMatch() {
+        assertEquals(List.of(), candidates("contos terror"));
+    }
+
+    //Com menos de 3 caracteres ou mais candidatos que o limite o indice nao responde
+    @Test
+    public void whenShortFragmentOrTooManyCandidates_ReturnEmpty() {
+        assertFalse(index.candidates("te", 10).isPresent());
+        assertFalse(index.candidates("terror", 1).isPresent());
+        assertTrue(index.candidates("terror", 2).isPresent());
+    }
+
+    //Reindexar troca o texto do livro e remover tira ele das buscas
+    @Test
+    public void whenPutAgainAndRemove_ReturnOnlyCurrentText() {
+        index.put("a1", "Contos de Amor", null, "Romance");
+        assertTrue(index.remove("a3"));
+        assertFalse(index.remove("a3"));
+
+        assertEquals(List.of("a2"), candidates("terror"));
+        assertEquals(List.of("a1"), candidates("amor"));
+        assertEquals(2, index.size());
+    }
+
+    //Reindexar o mesmo livro muitas vezes compacta os docIds mortos e a busca continua so com o texto atual
+    @Test
+    public void whenPutSameIdManyTimes_CompactDeadDocIds() {
+        for (int i = 0; i < 1000; i++) {
+            index.put("a3", "Amor de Verao " + i, null, "Romance");
+        }
+
+        assertTrue(index.allocated() < 200);
+        assertEquals(3, index.size());
+        assertEquals(List.of("a3"), candidates("verao 999"));
+        assertEquals(List.of(), candidates("verao 998"));
+        assertEquals(List.of("a1", "a2"), candidates("terror"));
+    }
+
+    private List<String> candidates(String fragment) {
+        Optional<List<String>> candidates = index.candidates(fragment, 10);
+        return candidates.get();
+    }
+}